@@ -0,0 +1,116 @@
+package com.example.backend.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.backend.config.DataAccessProperties;
+import com.example.backend.config.JdbcConfig;
+import com.example.backend.model.AdUser;
+import com.example.backend.model.Director;
+import com.example.backend.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Effect of each {@link DataAccessProperties} setting on a real SQL Server. H2
+ * says nothing about mssql-jdbc, so this one needs a database:
+ * <pre>
+ * java -Dbench.jdbcUrl='jdbc:sqlserver://host;databaseName=PBOAssetMgmt;encrypt=false' \
+ *      -Dbench.username=... -Dbench.password=... \
+ *      -jar target/benchmarks.jar JdbcSettingsBenchmark -p selectMethod=direct
+ * </pre>
+ * The pool is built the way the application builds it, through
+ * {@link JdbcConfig#sqlServerDriverSettings}, so the numbers apply one to one.
+ * {@code lookup} is one small prepared query repeated (statement pooling),
+ * {@code scan} reads a whole ADSUSERS region (buffering, fetch size: direct or cursor).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class JdbcSettingsBenchmark {
+
+    @Param({"0", "256"})
+    public int statementPoolingCacheSize;
+
+    @Param({"direct", "cursor"})
+    public String selectMethod;
+
+    @Param({"adaptive", "full"})
+    public String responseBuffering;
+
+    @Param({"true", "false"})
+    public boolean sendStringParametersAsUnicode;
+
+    // 0 reads ADSUSERS directly, the others on a server cursor
+    @Param({"0", "128", "1000", "4000"})
+    public int scanFetchSize;
+
+    private HikariDataSource pool;
+    private UserRepository repository;
+    private Director sample;
+    private String company;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = System.getProperty("bench.jdbcUrl");
+        if (url == null) {
+            throw new IllegalStateException("Set -Dbench.jdbcUrl to a SQL Server holding the directory databases");
+        }
+        company = System.getProperty("bench.company", "FUTE");
+
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("bench", Map.of(
+                "directory.jdbc.driver.statement-pooling-cache-size", statementPoolingCacheSize,
+                "directory.jdbc.driver.select-method", selectMethod,
+                "directory.jdbc.driver.response-buffering", responseBuffering,
+                "directory.jdbc.driver.send-string-parameters-as-unicode", sendStringParametersAsUnicode,
+                "directory.jdbc.fetch-size.scan", scanFetchSize)));
+        DataAccessProperties properties = Binder.get(env).bindOrCreate("directory.jdbc", DataAccessProperties.class);
+
+        HikariDataSource hikari = new HikariDataSource();
+        hikari.setJdbcUrl(url);
+        hikari.setUsername(System.getProperty("bench.username"));
+        hikari.setPassword(System.getProperty("bench.password"));
+        hikari.setMaximumPoolSize(1);
+        pool = (HikariDataSource) JdbcConfig.sqlServerDriverSettings(env).postProcessBeforeInitialization(hikari, "dataSource");
+
+        repository = new UserRepository(new JdbcTemplate(pool), properties);
+        sample = repository.getListForCompanyOnly(company).get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public List<Director> lookup() {
+        return repository.getDirectorBasedOnParam(sample.company(), sample.businessUnit(), sample.clazz());
+    }
+
+    @Benchmark
+    public List<AdUser> scan() {
+        return repository.getDisplayNameAndNTAccounts(company);
+    }
+}
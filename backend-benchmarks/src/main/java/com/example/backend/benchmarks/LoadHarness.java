@@ -0,0 +1,169 @@
+package com.example.backend.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import com.example.backend.BackendApplication;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Boots the backend against a seeded {@link SyntheticDirectory} and drives its read
+ * endpoints with a fixed number of concurrent HTTP clients, printing throughput
+ * and latency percentiles per endpoint.
+ *
+ * <pre>
+ * java -Dbench.concurrency=200 -Dbench.seconds=30 \
+ *      -cp target/benchmarks.jar com.example.backend.benchmarks.LoadHarness [spring args...]
+ * </pre>
+ *
+ * Extra arguments go to the application, e.g. {@code --spring.profiles.active=vthreads}
+ * on Java 21 to compare virtual against platform request threads under the same load.
+ * That comparison has not been run yet; until it has, the vthreads profile stays
+ * experimental.
+ */
+public final class LoadHarness {
+
+    private static final String[] ENDPOINTS = {
+            "/api/users/companies",
+            "/api/users/search/all",
+            "/api/users/search/company?company=FUTE",
+            "/api/users/search?company=FUTE&pageSize=50",
+            "/api/users/search?ntAccount=smi&sort=ntAccount&pageSize=50",
+            "/api/users/classes?company=FUTE",
+            "/api/users/ntaccounts?company=FUTE",
+            "/api/users/ntaccounts/suggest?company=FUTE&q=smi&limit=20",
+            "/api/users/bootstrap?company=FUTE",
+    };
+
+    private LoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("bench.concurrency", 64);
+        int seconds = Integer.getInteger("bench.seconds", 20);
+        int warmupSeconds = Integer.getInteger("bench.warmupSeconds", 5);
+        int port = Integer.getInteger("bench.port", 18080);
+
+        long seedStart = System.nanoTime();
+        SyntheticDirectory data = new SyntheticDirectory("loadharness").create();
+        System.out.printf("Seeded %d classes x %d companies, %d AD users per region in %d ms%n",
+                data.classesPerCompany, SyntheticDirectory.COMPANIES.length, data.usersPerRegion,
+                (System.nanoTime() - seedStart) / 1_000_000);
+
+        HarnessDataSource.target = data.dataSource();
+        List<String> appArgs = new ArrayList<>(List.of(
+                "--server.port=" + port,
+                "--server.servlet.context-path=",
+                "--spring.flyway.enabled=false",
+                "--logging.level.com.example.backend.slow-query=ERROR"));
+        appArgs.addAll(Arrays.asList(args));
+
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(BackendApplication.class, HarnessDataSource.class)
+                .run(appArgs.toArray(new String[0]))) {
+
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newFixedThreadPool(Math.min(concurrency, 32)))
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            String base = "http://localhost:" + port;
+
+            System.out.printf("%nconcurrency=%d, %ds per endpoint after %ds warm-up, request threads: %s%n%n",
+                    concurrency, seconds, warmupSeconds,
+                    app.getEnvironment().getProperty("spring.threads.virtual.enabled", "false").equals("true")
+                            ? "virtual" : "platform");
+            System.out.printf("%-58s %9s %8s %8s %8s %8s %7s%n", "endpoint", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors");
+            for (String endpoint : ENDPOINTS) {
+                URI uri = URI.create(base + endpoint);
+                run(client, uri, concurrency, warmupSeconds);
+                Result r = run(client, uri, concurrency, seconds);
+                System.out.printf("%-58s %9.1f %8.2f %8.2f %8.2f %8.2f %7d%n", endpoint,
+                        r.count() / (double) seconds, r.percentile(0.50), r.percentile(0.95),
+                        r.percentile(0.99), r.percentile(1.0), r.errors());
+            }
+        }
+        System.exit(0);
+    }
+
+    private static Result run(HttpClient client, URI uri, int concurrency, int seconds) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(workers.submit(() -> {
+                long[] latencies = new long[1024];
+                int n = 0;
+                HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) errors.incrementAndGet();
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    if (n == latencies.length) latencies = Arrays.copyOf(latencies, n * 2);
+                    latencies[n++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(latencies, n);
+            }));
+        }
+        long[] all = new long[0];
+        for (Future<long[]> f : futures) {
+            long[] part = f.get();
+            long[] merged = Arrays.copyOf(all, all.length + part.length);
+            System.arraycopy(part, 0, merged, all.length, part.length);
+            all = merged;
+        }
+        workers.shutdown();
+        Arrays.sort(all);
+        return new Result(all, errors.get());
+    }
+
+    private record Result(long[] sortedNanos, long errors) {
+        int count() {
+            return sortedNanos.length;
+        }
+
+        double percentile(double p) {
+            if (sortedNanos.length == 0) return Double.NaN;
+            int index = (int) Math.ceil(p * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Replaces the SQL Server DataSource with a Hikari pool over the H2 database.
+     * Registered explicitly as a source (not component-scanned), so it only
+     * applies to the harness.
+     */
+    static class HarnessDataSource {
+
+        static DataSource target;
+
+        @Bean
+        public HikariDataSource dataSource() {
+            HikariDataSource hikari = new HikariDataSource();
+            hikari.setPoolName("harness");
+            hikari.setMaximumPoolSize(Integer.getInteger("bench.poolSize", 10));
+            hikari.setDataSource(new SqlServerShim(target));
+            return hikari;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.backend.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.backend.model.AdUser;
+import com.example.backend.model.Director;
+import com.example.backend.repository.DirectoryRowMappers;
+
+/**
+ * Cost per row of turning a ResultSet into the objects the controllers return:
+ * the old {@code queryForList} maps against the typed row mappers.
+ *
+ * Scores are per row (OperationsPerInvocation), so running with {@code -prof gc}
+ * gives bytes allocated per row in {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    static final int DIRECTOR_ROWS = 4000;
+    static final int AD_USER_ROWS = 10000;
+
+    private static final String DIRECTORS_SQL = """
+            SELECT TOP 4000 a.Company, g.GroupNTDesc as BusinessUnit, a.Class, a.Role, a.NT_Account, a.RowVersion
+            FROM PBO.AO_UserAssociation a
+            JOIN CQ.BUxClass b ON a.Class = b.Class AND a.Company = b.Company
+            JOIN CQ.Groups g ON b.BU = g.GID
+            WHERE a.Role = 'director'
+            """;
+
+    private static final String AD_USERS_SQL = """
+            SELECT TOP 10000 DisplayName AS label, NT_Account AS value
+            FROM DW.ADSUSERS
+            WHERE NT_Account LIKE 'EUR%'
+            """;
+
+    private JdbcTemplate jdbc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("bench.usersPerRegion", String.valueOf(AD_USER_ROWS));
+        System.setProperty("bench.classesPerCompany", String.valueOf(DIRECTOR_ROWS + DIRECTOR_ROWS / 5));
+        jdbc = new JdbcTemplate(new SyntheticDirectory("rowmapping").create().dataSource());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DIRECTOR_ROWS)
+    public List<Map<String, Object>> directorsAsMaps() {
+        return jdbc.queryForList(DIRECTORS_SQL);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DIRECTOR_ROWS)
+    public List<Director> directorsAsRecords() {
+        return jdbc.query(DIRECTORS_SQL, DirectoryRowMappers.DIRECTOR);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AD_USER_ROWS)
+    public List<Map<String, Object>> adUsersAsMaps() {
+        return jdbc.queryForList(AD_USERS_SQL);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AD_USER_ROWS)
+    public List<AdUser> adUsersAsRecords() {
+        return jdbc.query(AD_USERS_SQL, DirectoryRowMappers.AD_USER);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.backend.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import com.example.backend.model.Director;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Jackson cost per row of writing /search/all: the old
+ * {@code List<Map<String, Object>>} against {@code List<Director>}. Both produce
+ * the same JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    static final int ROWS = 4000;
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private List<Map<String, Object>> maps;
+    private List<Director> records;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        maps = new ArrayList<>(ROWS);
+        records = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            String company = SyntheticDirectory.COMPANIES[i % 3];
+            String bu = company + " Business Unit " + (i % 60);
+            String clazz = String.format("C%05d", i);
+            String nt = SyntheticDirectory.REGIONS[i % 3] + "\\" + SyntheticDirectory.account(i);
+            String version = String.format("%016X", 2000L + i);
+
+            Map<String, Object> row = new LinkedCaseInsensitiveMap<>();
+            row.put("Company", company);
+            row.put("BusinessUnit", bu);
+            row.put("Class", clazz);
+            row.put("Role", "director");
+            row.put("NT_Account", nt);
+            row.put("Version", version);
+            maps.add(row);
+            records.add(new Director(company, bu, clazz, "director", nt, version));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void maps() throws IOException {
+        mapper.writeValue(DISCARD, maps);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void records() throws IOException {
+        mapper.writeValue(DISCARD, records);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.backend.benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Rewrites the SQL Server-specific parts of the backend's read queries so they run
+ * on {@link SyntheticDirectory}'s H2 database: cross-database three-part names
+ * become schemas and LIKE patterns without their own ESCAPE clause keep treating
+ * backslash as a plain character.
+ *
+ * Only the read paths are covered. The T-SQL batches of the write paths and of
+ * the projection merge have no H2 equivalent and are not load-tested here.
+ */
+public final class SqlServerShim extends DelegatingDataSource {
+
+    private static final Pattern PBO = Pattern.compile("PBOAssetMgmt\\.dbo\\.", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CQ = Pattern.compile("CorporateQuote\\.dbo\\.", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DW = Pattern.compile("DATAWHSE\\.\\.", Pattern.CASE_INSENSITIVE);
+    private static final Pattern LIKE = Pattern.compile("LIKE \\?(?! ESCAPE)");
+
+    public SqlServerShim(DataSource target) {
+        super(target);
+    }
+
+    public static String rewrite(String sql) {
+        sql = PBO.matcher(sql).replaceAll("PBO.");
+        sql = CQ.matcher(sql).replaceAll("CQ.");
+        sql = DW.matcher(sql).replaceAll("DW.");
+        return LIKE.matcher(sql).replaceAll("LIKE ? ESCAPE ''");
+    }
+
+    @Override
+    public Connection getConnection() throws java.sql.SQLException {
+        return rewriting(super.getConnection(), Connection.class);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws java.sql.SQLException {
+        return rewriting(super.getConnection(username, password), Connection.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T rewriting(T target, Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            if (args != null && args.length > 0 && args[0] instanceof String sql) {
+                args[0] = rewrite(sql);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            // plain Statements receive their SQL on execute, so they need the same treatment
+            if (result instanceof Statement statement && method.getName().equals("createStatement")) {
+                return rewriting(statement, Statement.class);
+            }
+            return result;
+        });
+    }
+}
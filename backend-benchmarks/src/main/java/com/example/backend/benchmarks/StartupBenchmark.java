@@ -0,0 +1,243 @@
+package com.example.backend.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipFile;
+
+/**
+ * Cold start time and resident memory of the packaged backend, per deployment
+ * layout. Builds whatever layouts are present under the backend's target
+ * directory and starts each one {@code bench.runs} times:
+ * <ul>
+ *   <li>{@code jar} – the executable jar ({@code mvn package})</li>
+ *   <li>{@code jar+aot} – the same jar with AOT initializers ({@code mvn -Paot package})</li>
+ *   <li>{@code cds} – target/cds with its AppCDS archive ({@code mvn -Pcds package},
+ *       or {@code -Paot,cds} for both)</li>
+ *   <li>{@code native} – target/backend ({@code mvn -Pnative native:compile})</li>
+ * </ul>
+ * <pre>
+ * java -Dbench.runs=5 -Dbench.backendTarget=../backend/target \
+ *      -cp target/benchmarks.jar com.example.backend.benchmarks.StartupBenchmark
+ * </pre>
+ *
+ * Startup is measured from process launch to the first 200 from /api/users/test,
+ * RSS is VmRSS from /proc right after that (Linux only). No database is needed:
+ * the pool connects lazily, migrations are switched off and the scheduled
+ * refreshes are pushed past the end of the run. AOT layouts still pay for one
+ * failed connection attempt by Flyway, as their Flyway bean is fixed at build
+ * time. The exit code is non-zero if a
+ * layout failed to start, or exceeded {@code bench.maxStartupMs} when set, so
+ * the class can gate a CI job; {@code bench.csv} additionally writes the raw
+ * runs to a file.
+ */
+public final class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\w+ in ([0-9.]+) seconds");
+
+    private static final String[] APP_ARGS = {
+            "--spring.datasource.url=jdbc:sqlserver://localhost;databaseName=PBOAssetMgmt",
+            "--spring.flyway.enabled=false",
+            "--directory.snapshot.initial-delay=PT1H",
+            "--directory.ntaccounts.initial-delay=PT1H",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.backend.BackendApplication=INFO",
+            // with AOT the Flyway bean exists regardless and probes the database once, see JdbcConfig
+            "--logging.level.com.zaxxer.hikari=OFF",
+    };
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("bench.runs", 5);
+        long maxStartupMs = Long.getLong("bench.maxStartupMs", 0);
+        Path target = Path.of(System.getProperty("bench.backendTarget", "../backend/target")).toAbsolutePath().normalize();
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> jvmArgs = Arrays.stream(System.getProperty("bench.jvmArgs", "").split("\\s+"))
+                .filter(s -> !s.isBlank()).toList();
+
+        Map<String, Layout> layouts = layouts(target, java, jvmArgs);
+        if (layouts.isEmpty()) {
+            System.err.println("No packaged backend under " + target + ", run mvn package in ../backend first");
+            System.exit(2);
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        List<String> csv = new ArrayList<>(List.of("layout,run,startup_ms,spring_ms,rss_mb"));
+        boolean failed = false;
+
+        System.out.printf("%d runs per layout%n%n", runs);
+        System.out.printf("%-10s %12s %12s %12s %12s %10s%n",
+                "layout", "median ms", "min ms", "max ms", "spring ms", "RSS MB");
+        for (Map.Entry<String, Layout> e : layouts.entrySet()) {
+            List<Run> results = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                Run run = start(e.getValue(), client);
+                if (run == null) {
+                    failed = true;
+                    break;
+                }
+                results.add(run);
+                csv.add("%s,%d,%d,%.0f,%.1f".formatted(e.getKey(), i + 1, run.startupMs(), run.springMs(), run.rssMb()));
+            }
+            if (results.size() < runs) {
+                System.out.printf("%-10s failed to start, see output above%n", e.getKey());
+                continue;
+            }
+            long[] startup = results.stream().mapToLong(Run::startupMs).sorted().toArray();
+            double[] spring = results.stream().mapToDouble(Run::springMs).sorted().toArray();
+            double[] rss = results.stream().mapToDouble(Run::rssMb).sorted().toArray();
+            System.out.printf("%-10s %12d %12d %12d %12.0f %10.1f%n", e.getKey(),
+                    startup[runs / 2], startup[0], startup[runs - 1], spring[runs / 2], rss[runs / 2]);
+            if (maxStartupMs > 0 && startup[runs / 2] > maxStartupMs) {
+                System.out.printf("%-10s median startup above bench.maxStartupMs=%d%n", e.getKey(), maxStartupMs);
+                failed = true;
+            }
+        }
+
+        String csvFile = System.getProperty("bench.csv");
+        if (csvFile != null) {
+            Files.write(Path.of(csvFile), csv, StandardCharsets.UTF_8);
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    private static Map<String, Layout> layouts(Path target, String java, List<String> jvmArgs) throws IOException {
+        Map<String, Layout> layouts = new LinkedHashMap<>();
+        Path jar;
+        try (var files = Files.list(target)) {
+            jar = files.filter(p -> p.getFileName().toString().matches("backend-.*\\.jar")).findFirst().orElse(null);
+        } catch (IOException e) {
+            jar = null;
+        }
+        if (jar != null) {
+            layouts.put("jar", new Layout(target, command(java, jvmArgs, false, List.of("-jar", jar.toString()))));
+            if (hasAotInitializer(jar, "BOOT-INF/classes/")) {
+                layouts.put("jar+aot", new Layout(target, command(java, jvmArgs, true, List.of("-jar", jar.toString()))));
+            }
+        }
+
+        Path cds = target.resolve("cds");
+        Path archive = cds.resolve("application.jsa");
+        if (Files.exists(archive)) {
+            try (var files = Files.list(cds)) {
+                Path cdsJar = files.filter(p -> p.getFileName().toString().endsWith("-cds.jar")).findFirst().orElseThrow();
+                List<String> cdsArgs = List.of("-XX:SharedArchiveFile=" + archive, "-jar", cdsJar.toString());
+                layouts.put("cds", new Layout(cds, command(java, jvmArgs, hasAotInitializer(cdsJar, ""), cdsArgs)));
+            }
+        }
+
+        Path nativeImage = target.resolve("backend");
+        if (Files.isExecutable(nativeImage) && !Files.isDirectory(nativeImage)) {
+            List<String> command = new ArrayList<>(List.of(nativeImage.toString()));
+            command.addAll(List.of(APP_ARGS));
+            layouts.put("native", new Layout(target, command));
+        }
+        return layouts;
+    }
+
+    private static List<String> command(String java, List<String> jvmArgs, boolean aot, List<String> launch) {
+        List<String> command = new ArrayList<>(List.of(java));
+        command.addAll(jvmArgs);
+        if (aot) command.add("-Dspring.aot.enabled=true");
+        command.addAll(launch);
+        command.addAll(List.of(APP_ARGS));
+        return command;
+    }
+
+    private static boolean hasAotInitializer(Path jar, String classesPrefix) throws IOException {
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            return zip.getEntry(classesPrefix + "com/example/backend/BackendApplication__ApplicationContextInitializer.class") != null;
+        }
+    }
+
+    /** Returns null if the process exited or did not answer within two minutes. */
+    private static Run start(Layout layout, HttpClient client) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>(layout.command());
+        command.add("--server.port=" + port);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(layout.directory().toFile())
+                .redirectErrorStream(true).start();
+        CompletableFuture<Double> springSeconds = new CompletableFuture<>();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    Matcher m = STARTED.matcher(line);
+                    if (m.find()) {
+                        springSeconds.complete(Double.parseDouble(m.group(1)));
+                    } else if (line.contains(" ERROR ")) {
+                        System.out.println("  | " + line);
+                    }
+                }
+            } catch (IOException e) {
+                // process gone
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/test"))
+                .timeout(Duration.ofSeconds(1)).build();
+        long deadline = start + TimeUnit.MINUTES.toNanos(2);
+        try {
+            while (System.nanoTime() < deadline && process.isAlive()) {
+                try {
+                    if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        long startupMs = (System.nanoTime() - start) / 1_000_000;
+                        double rssMb = rssKb(process.pid()) / 1024.0;
+                        // the log line can trail the first answered request by a few milliseconds
+                        double springMs = springSeconds.completeOnTimeout(Double.NaN, 5, TimeUnit.SECONDS).get() * 1000;
+                        return new Run(startupMs, springMs, rssMb);
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(10);
+            }
+            return null;
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return -1;
+    }
+
+    private record Layout(Path directory, List<String> command) {
+    }
+
+    private record Run(long startupMs, double springMs, double rssMb) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.backend.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * An H2 stand-in for the three SQL Server databases the backend reads, seeded
+ * with production-sized synthetic data.
+ *
+ * Each database becomes a schema (PBO, CQ, DW); {@link SqlServerShim} rewrites
+ * the backend's three-part names onto them. Sizes can be changed with system
+ * properties: bench.classesPerCompany, bench.busPerCompany, bench.usersPerRegion.
+ */
+public final class SyntheticDirectory {
+
+    public static final String[] COMPANIES = {"FUTA", "FUTE", "FUTI"};
+    public static final String[] REGIONS = {"ASIA", "EUR", "NA"};
+
+    private static final String[] FIRST = {"James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael",
+            "Linda", "David", "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas",
+            "Sarah", "Charles", "Karen", "Lukas", "Emma", "Hiroshi", "Yuki", "Wei", "Mei", "Arjun", "Priya"};
+    private static final String[] LAST = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas",
+            "Taylor", "Moore", "Jackson", "Martin", "Muller", "Schmidt", "Tanaka", "Suzuki", "Wang", "Li", "Patel"};
+
+    public final int classesPerCompany = Integer.getInteger("bench.classesPerCompany", 1500);
+    public final int busPerCompany = Integer.getInteger("bench.busPerCompany", 60);
+    public final int usersPerRegion = Integer.getInteger("bench.usersPerRegion", 30000);
+
+    private final DataSource dataSource;
+
+    public SyntheticDirectory(String name) {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + name
+                + ";MODE=MSSQLServer;DB_CLOSE_DELAY=-1;NON_KEYWORDS=CLASS,GROUPS,ROLE,VALUE");
+        this.dataSource = h2;
+    }
+
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    public SyntheticDirectory create() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE SCHEMA IF NOT EXISTS PBO");
+        jdbc.execute("CREATE SCHEMA IF NOT EXISTS CQ");
+        jdbc.execute("CREATE SCHEMA IF NOT EXISTS DW");
+        jdbc.execute("""
+            CREATE TABLE PBO.AO_UserAssociation (
+                Company varchar(10), Class varchar(20), NT_Account varchar(64), BU varchar(100), Role varchar(20),
+                RowVersion binary(8) DEFAULT X'00000000000007D1')
+        """);
+        jdbc.execute("CREATE INDEX IX_AO_Company_Class ON PBO.AO_UserAssociation (Company, Class, Role)");
+        jdbc.execute("CREATE TABLE CQ.BUxClass (Company varchar(10), Class varchar(20), BU int)");
+        jdbc.execute("CREATE INDEX IX_BUxClass_Company_Class ON CQ.BUxClass (Company, Class)");
+        jdbc.execute("CREATE TABLE CQ.Groups (GID int PRIMARY KEY, Company varchar(10), GroupNTDesc varchar(100))");
+        jdbc.execute("CREATE TABLE DW.ADSUSERS (DisplayName varchar(128), NT_Account varchar(64))");
+        jdbc.execute("CREATE INDEX IX_ADSUSERS_NT ON DW.ADSUSERS (NT_Account)");
+        // same shape and indexes as the backend's db/migration scripts (V1, V3, V4)
+        jdbc.execute("""
+            CREATE TABLE PBO.DirectorProjection (
+                Company varchar(50) NOT NULL, Class varchar(100) NOT NULL, BusinessUnit varchar(255),
+                Role varchar(50) NOT NULL, NT_Account varchar(255), RowVersion binary(8),
+                NtKey varchar(255) GENERATED ALWAYS AS (COALESCE(NT_Account, '')),
+                BuKey varchar(255) GENERATED ALWAYS AS (COALESCE(BusinessUnit, '')))
+        """);
+        jdbc.execute("CREATE INDEX CX_DirectorProjection_Company_Class ON PBO.DirectorProjection (Company, Class)");
+        jdbc.execute("CREATE INDEX IX_DirectorProjection_BuKey ON PBO.DirectorProjection (BuKey, Company, Class)");
+        jdbc.execute("CREATE INDEX IX_DirectorProjection_NtKey ON PBO.DirectorProjection (NtKey, Company, Class)");
+
+        Random random = new Random(42);
+        int gid = 1;
+        for (int c = 0; c < COMPANIES.length; c++) {
+            String company = COMPANIES[c];
+            List<Object[]> groups = new ArrayList<>();
+            int firstGid = gid;
+            for (int b = 0; b < busPerCompany; b++) {
+                groups.add(new Object[] {gid++, company, company + " Business Unit " + b});
+            }
+            jdbc.batchUpdate("INSERT INTO CQ.Groups (GID, Company, GroupNTDesc) VALUES (?, ?, ?)", groups);
+
+            List<Object[]> buxClass = new ArrayList<>();
+            List<Object[]> directors = new ArrayList<>();
+            for (int k = 0; k < classesPerCompany; k++) {
+                String clazz = String.format("%s%05d", company.charAt(3), k);
+                int bu = random.nextInt(busPerCompany);
+                buxClass.add(new Object[] {company, clazz, firstGid + bu});
+                // most classes have a director, like production
+                if (random.nextInt(10) < 9) {
+                    directors.add(new Object[] {company, clazz, REGIONS[c] + "\\" + account(random.nextInt(usersPerRegion)),
+                            company + " Business Unit " + bu, "director"});
+                }
+            }
+            jdbc.batchUpdate("INSERT INTO CQ.BUxClass (Company, Class, BU) VALUES (?, ?, ?)", buxClass);
+            jdbc.batchUpdate("INSERT INTO PBO.AO_UserAssociation (Company, Class, NT_Account, BU, Role) VALUES (?, ?, ?, ?, ?)",
+                    directors);
+
+            List<Object[]> users = new ArrayList<>(usersPerRegion);
+            for (int u = 0; u < usersPerRegion; u++) {
+                users.add(new Object[] {displayName(u), REGIONS[c] + "\\" + account(u)});
+            }
+            jdbc.batchUpdate("INSERT INTO DW.ADSUSERS (DisplayName, NT_Account) VALUES (?, ?)", users);
+        }
+        jdbc.execute("""
+            INSERT INTO PBO.DirectorProjection (Company, Class, BusinessUnit, Role, NT_Account, RowVersion)
+            SELECT DISTINCT a.Company, a.Class, g.GroupNTDesc, a.Role, a.NT_Account, a.RowVersion
+            FROM PBO.AO_UserAssociation a
+            JOIN CQ.BUxClass b ON a.Class = b.Class AND a.Company = b.Company
+            JOIN CQ.Groups g ON b.BU = g.GID
+            WHERE a.Role = 'director'
+        """);
+        return this;
+    }
+
+    static String displayName(int i) {
+        return LAST[i % LAST.length] + ", " + FIRST[(i / LAST.length) % FIRST.length] + " " + i;
+    }
+
+    static String account(int i) {
+        return (FIRST[(i / LAST.length) % FIRST.length].charAt(0) + LAST[i % LAST.length]).toLowerCase() + i;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.backend.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.backend.model.AdUser;
+
+/**
+ * One keystroke of the NT account type-ahead against a region-sized index.
+ * Lives in the service package because the index class is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NtAccountSuggestBenchmark {
+
+    @Param({"30000"})
+    public int users;
+
+    @Param({"s", "smi", "eur\\jsmith1"})
+    public String query;
+
+    private NtAccountIndexService.PrefixIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] first = {"John", "Mary", "Wei", "Priya", "Lukas", "Yuki"};
+        String[] last = {"Smith", "Smithers", "Garcia", "Tanaka", "Muller", "Patel", "Li"};
+        List<AdUser> source = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            String f = first[i % first.length];
+            String l = last[(i / first.length) % last.length];
+            source.add(new AdUser(l + ", " + f + " " + i, "EUR\\" + (f.charAt(0) + l).toLowerCase() + i));
+        }
+        source.sort(Comparator.comparing(AdUser::label));
+        index = new NtAccountIndexService.PrefixIndex(source);
+    }
+
+    @Benchmark
+    public List<AdUser> suggest() {
+        return index.find(query, 20);
+    }
+}
@@ -0,0 +1,40 @@
+-- Indexes on the source tables the directory backend reads and writes, for the
+-- DBAs who own PBOAssetMgmt.dbo.AO_UserAssociation and CorporateQuote.dbo.BUxClass
+-- and Groups to review and apply. They are not a Flyway migration: the
+-- application's login should not need DDL rights on another team's tables, and a
+-- rebuild there is theirs to schedule. Each one is skipped when an index of the
+-- same name exists.
+--
+-- What they serve: the director writes and their update locks seek
+-- AO_UserAssociation on (Role, Company, Class); the projection refresh and merge
+-- join BUxClass on (Company, Class) and Groups on GID; the BU lookups seek Groups
+-- on (Company, GroupNTDesc).
+--
+-- V3__director_row_version.sql still adds the RowVersion column to
+-- AO_UserAssociation, since the application cannot run without it; it needs the
+-- same DBAs' sign-off before it first runs against a shared server.
+
+IF NOT EXISTS (SELECT 1 FROM PBOAssetMgmt.sys.indexes
+               WHERE name = N'IX_AO_UserAssociation_Role_Company_Class'
+                 AND object_id = OBJECT_ID(N'PBOAssetMgmt.dbo.AO_UserAssociation'))
+CREATE INDEX IX_AO_UserAssociation_Role_Company_Class
+    ON PBOAssetMgmt.dbo.AO_UserAssociation (Role, Company, Class)
+    INCLUDE (BU, NT_Account);
+GO
+
+IF NOT EXISTS (SELECT 1 FROM CorporateQuote.sys.indexes
+               WHERE name = N'IX_BUxClass_Company_Class'
+                 AND object_id = OBJECT_ID(N'CorporateQuote.dbo.BUxClass'))
+CREATE INDEX IX_BUxClass_Company_Class
+    ON CorporateQuote.dbo.BUxClass (Company, Class)
+    INCLUDE (BU);
+GO
+
+IF NOT EXISTS (SELECT 1 FROM CorporateQuote.sys.indexes
+               WHERE name = N'IX_Groups_Company_GroupNTDesc'
+                 AND object_id = OBJECT_ID(N'CorporateQuote.dbo.Groups'))
+CREATE INDEX IX_Groups_Company_GroupNTDesc
+    ON CorporateQuote.dbo.Groups (Company, GroupNTDesc)
+    INCLUDE (GID);
+GO
+
@@ -2,8 +2,16 @@ package com.example.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.example.backend.config.LookupCacheProperties;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties(LookupCacheProperties.class)
+@PropertySource("classpath:directory.properties")
 public class BackendApplication {
     public static void main(String[] args) {
         SpringApplication.run(BackendApplication.class, args);
@@ -0,0 +1,70 @@
+package com.example.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tuning of the JDBC layer under {@code directory.jdbc.*}. Pool sizing stays with
+ * Spring Boot's own {@code spring.datasource.hikari.*} properties.
+ *
+ * Every setting can be compared on a real SQL Server with backend-benchmarks'
+ * JdbcSettingsBenchmark, which runs a repository lookup and the ADSUSERS scan
+ * once per combination:
+ * <pre>
+ * java -Dbench.jdbcUrl='jdbc:sqlserver://...' -jar target/benchmarks.jar JdbcSettingsBenchmark \
+ *      -p statementPoolingCacheSize=0,256 -p responseBuffering=adaptive,full
+ * </pre>
+ * No run against SQL Server has been recorded yet: the driver defaults below
+ * follow the mssql-jdbc documentation, not a measurement, and the scan stays on
+ * direct reads until a run shows a cursor paying off. Put the results here when
+ * changing any of them.
+ */
+@ConfigurationProperties("directory.jdbc")
+public record DataAccessProperties(@DefaultValue Driver driver, @DefaultValue FetchSize fetchSize) {
+
+    /**
+     * mssql-jdbc connection properties, applied to the Hikari pool. A value that is
+     * also in the JDBC URL is taken from the URL.
+     * <ul>
+     *   <li>{@code statementPoolingCacheSize} – prepared statement handles kept per
+     *       connection. With 0 (the driver default) each call pays sp_prepexec and
+     *       sp_unprepare; cached, a repeated query is one sp_execute. Keep it above
+     *       the number of distinct statements: about 30 fixed ones plus the /search
+     *       variants.</li>
+     *   <li>{@code serverPreparedStatementDiscardThreshold} – handles released
+     *       together in one batched sp_unprepare.</li>
+     *   <li>{@code enablePrepareOnFirstPreparedStatementCall} – prepare on the first
+     *       execution rather than the second; pays off once pooling is on, since
+     *       every statement here is reused.</li>
+     *   <li>{@code selectMethod} – the connection default: direct streams a whole
+     *       result in one response, cursor fetches it fetch-size rows per round trip.
+     *       direct is fastest for the small lookups, which are read to the end; the
+     *       ADSUSERS scans open their own cursor, see {@link FetchSize}.</li>
+     *   <li>{@code responseBuffering} – adaptive keeps only the current part of a
+     *       result in memory, which bounds the heap cost of the ADSUSERS scans; full
+     *       buffers whole results.</li>
+     *   <li>{@code sendStringParametersAsUnicode} – if the directory columns are
+     *       varchar, false avoids the nvarchar conversion that turns index seeks
+     *       into scans.</li>
+     * </ul>
+     */
+    public record Driver(
+            @DefaultValue("256") int statementPoolingCacheSize,
+            @DefaultValue("10") int serverPreparedStatementDiscardThreshold,
+            @DefaultValue("true") boolean enablePrepareOnFirstPreparedStatementCall,
+            @DefaultValue("direct") String selectMethod,
+            @DefaultValue("adaptive") String responseBuffering,
+            @DefaultValue("true") boolean sendStringParametersAsUnicode) {
+    }
+
+    /**
+     * Rows per round trip of the region-wide ADSUSERS reads. mssql-jdbc ignores a
+     * fetch size under {@code selectMethod=direct}, so with {@code scan} above 0
+     * those reads run on a forward-only server cursor of their own; 0, the default,
+     * reads them directly like every other query. The lookups have no setting: they
+     * return a few rows, which a cursor would only spread over more round trips.
+     */
+    public record FetchSize(
+            @DefaultValue("0") int scan) {
+    }
+}
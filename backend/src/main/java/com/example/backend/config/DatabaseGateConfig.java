@@ -0,0 +1,66 @@
+package com.example.backend.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Puts a {@link ConcurrencyLimitedDataSource} in front of the Hikari pool, so the
+ * transaction manager and every JdbcTemplate share the same gate.
+ *
+ * By default the number of permits equals the pool's maximum size; set
+ * {@code directory.db-gate.permits} to override it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "directory.db-gate.enabled", havingValue = "true", matchIfMissing = true)
+public class DatabaseGateConfig {
+
+    @Bean
+    public static BeanPostProcessor databaseGatePostProcessor(Environment env) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                int permits = env.getProperty("directory.db-gate.permits", Integer.class, 0);
+                if (permits <= 0) {
+                    permits = hikari.getMaximumPoolSize();
+                }
+                if (permits <= 0) {
+                    // not configured: Hikari only fills in its default of 10 when the pool starts
+                    permits = 10;
+                }
+                Duration timeout = env.getProperty("directory.db-gate.acquire-timeout", Duration.class,
+                        Duration.ofSeconds(30));
+                return new ConcurrencyLimitedDataSource(hikari, permits, timeout);
+            }
+        };
+    }
+
+    /** Sits next to Hikari's own hikaricp.connections.* pool meters. */
+    @Bean
+    public MeterBinder databaseGateMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConcurrencyLimitedDataSource gate) {
+                Gauge.builder("directory.db.gate.available", gate, ConcurrencyLimitedDataSource::availablePermits)
+                        .description("JDBC permits currently free")
+                        .register(registry);
+                Gauge.builder("directory.db.gate.queued", gate, ConcurrencyLimitedDataSource::queueLength)
+                        .description("Threads waiting for a JDBC permit")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.backend.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import com.example.backend.service.DataVersionService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Conditional GET for the API and cache headers for the React bundle.
+ *
+ * API reads carry an ETag built from {@link DataVersionService}; a request whose
+ * If-None-Match still matches is answered 304 before the controller runs, so it
+ * never reaches the database. Not /ntaccounts: it streams ADSUSERS as it is now,
+ * which the NT account counter (moved by the periodic index reload) can lag
+ * behind by a whole refresh interval. Not /audit either: the history grows
+ * through the audit log's write-behind flush and fallback replay, neither of
+ * which moves the version. Hashed files under /static/static are immutable and
+ * cached for a year, while index.html and the manifests are always revalidated.
+ *
+ * Static files are served from the .br / .gz siblings the Maven build writes
+ * (frontend/scripts/precompress-static.js) when the client accepts them. API
+ * responses are compressed on the fly by Tomcat, see {@code server.compression.*}.
+ */
+@Configuration
+public class HttpCacheConfig {
+
+    @Bean
+    public WebMvcConfigurer httpCacheConfigurer(DataVersionService versions) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new HandlerInterceptor() {
+                    @Override
+                    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                        String method = request.getMethod();
+                        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                            return true;
+                        }
+                        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+                        return !new ServletWebRequest(request, response).checkNotModified(versions.etag());
+                    }
+                }).addPathPatterns("/api/users/**").excludePathPatterns("/api/users/test", "/api/users/changes", "/api/users/ntaccounts",
+                        "/api/users/audit");
+            }
+
+            @Override
+            public void addResourceHandlers(ResourceHandlerRegistry registry) {
+                // index.html references the hashed bundle as /static/static/{js,css,media}/...
+                registry.addResourceHandler("/static/static/**")
+                        .addResourceLocations("classpath:/static/static/")
+                        .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                        .resourceChain(true)
+                        .addResolver(new EncodedResourceResolver());
+                registry.addResourceHandler("/static/**", "/index.html", "/manifest.json", "/asset-manifest.json", "/robots.txt")
+                        .addResourceLocations("classpath:/static/")
+                        .setCacheControl(CacheControl.noCache())
+                        .resourceChain(true)
+                        .addResolver(new EncodedResourceResolver());
+            }
+        };
+    }
+}
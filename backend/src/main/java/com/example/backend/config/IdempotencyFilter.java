@@ -0,0 +1,320 @@
+package com.example.backend.config;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+
+/**
+ * Makes API writes safe to retry. A write sent with an {@code Idempotency-Key}
+ * header runs once; a later request with the same key gets the stored status
+ * and body of the first one back, marked {@code Idempotent-Replayed: true},
+ * instead of running again. This holds for 4xx answers too (a 409 stays a 409);
+ * a 5xx or an exception is not stored, so the next retry runs the write again.
+ *
+ * A retry that arrives while the first request is still running waits for it
+ * up to {@code inFlightWait} and then gets its answer, or a 409 with Retry-After
+ * if it is still not done. Reusing a key for a different method, URL or body is
+ * answered 422. Keys are scoped to the authenticated user, if there is one.
+ * The body is read whole for the fingerprint, so a keyed write larger than
+ * {@code maximumBodySize} is answered 413 without running.
+ *
+ * Responses are kept in memory for {@code ttl} within a bound on their total
+ * size ({@link IdempotencyProperties}), on each instance separately: behind a
+ * load balancer, retries must stick to the instance that took the first request.
+ * Meters: {@code cache.size} and {@code cache.evictions} tagged
+ * {@code cache=directory.idempotency}.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    // key, fingerprint and bookkeeping of an entry, on top of its body
+    private static final int ENTRY_OVERHEAD = 512;
+
+    private final Cache<String, Entry> store;
+    private final long inFlightWaitMillis;
+    private final long maximumBodyBytes;
+
+    public IdempotencyFilter(IdempotencyProperties properties, MeterRegistry registry) {
+        this.store = Caffeine.newBuilder()
+                .expireAfterWrite(properties.ttl())
+                .maximumWeight(properties.maximumStoredBytes().toBytes())
+                .weigher((String key, Entry entry) -> ENTRY_OVERHEAD + key.length() + entry.bodyLength())
+                .recordStats()
+                .build();
+        this.inFlightWaitMillis = properties.inFlightWait().toMillis();
+        this.maximumBodyBytes = properties.maximumBodySize().toBytes();
+        CaffeineCacheMetrics.monitor(registry, store, "directory.idempotency");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return request.getHeader(HEADER) == null
+                || "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            sendError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters.");
+            return;
+        }
+        if (request.getContentLengthLong() > maximumBodyBytes) {
+            sendTooLarge(response);
+            return;
+        }
+        if (isFormOrMultipart(request)) {
+            // the container parses these bodies itself, so they are fingerprinted through its API
+            String fingerprint = fingerprint(request, null);
+            if (fingerprint == null) {
+                sendTooLarge(response);
+                return;
+            }
+            proceed(request, response, chain, scoped(request, key), fingerprint);
+        } else {
+            // one byte past the limit tells a body of exactly the limit from a larger one without a Content-Length
+            byte[] body = request.getInputStream().readNBytes((int) Math.min(maximumBodyBytes + 1, Integer.MAX_VALUE - 8));
+            if (body.length > maximumBodyBytes) {
+                sendTooLarge(response);
+                return;
+            }
+            BufferedRequest buffered = new BufferedRequest(request, body);
+            proceed(buffered, response, chain, scoped(request, key), fingerprint(request, body));
+        }
+    }
+
+    private void sendTooLarge(HttpServletResponse response) throws IOException {
+        sendError(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                "A request with an Idempotency-Key may have at most " + maximumBodyBytes + " bytes of body.");
+    }
+
+    private void proceed(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                         String key, String fingerprint) throws ServletException, IOException {
+        Entry entry = new Entry(fingerprint, new CompletableFuture<>());
+        while (true) {
+            Entry existing = store.asMap().putIfAbsent(key, entry);
+            if (existing == null) {
+                run(request, response, chain, key, entry);
+                return;
+            }
+            if (!existing.fingerprint().equals(fingerprint)) {
+                sendError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key was already used for a different request.");
+                return;
+            }
+            StoredResponse stored;
+            try {
+                stored = existing.response().get(inFlightWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                sendError(response, HttpStatus.CONFLICT,
+                        "A request with this Idempotency-Key is still being processed.");
+                return;
+            } catch (ExecutionException e) {
+                // never completed exceptionally, see run
+                throw new ServletException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            }
+            if (stored != null) {
+                replay(response, stored);
+                return;
+            }
+            // the first request failed and was not stored: this one runs it instead
+        }
+    }
+
+    private void run(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                     String key, Entry entry) throws ServletException, IOException {
+        ContentCachingResponseWrapper capture = new ContentCachingResponseWrapper(response);
+        StoredResponse stored = null;
+        try {
+            chain.doFilter(request, capture);
+            if (capture.getStatus() < 500) {
+                stored = new StoredResponse(capture.getStatus(), capture.getContentType(),
+                        capture.getContentAsByteArray());
+            }
+        } finally {
+            if (stored != null) {
+                entry.response().complete(stored);
+                // again, so the entry is weighed with its body
+                store.asMap().replace(key, entry, entry);
+            } else {
+                store.asMap().remove(key, entry);
+                entry.response().complete(null);
+            }
+        }
+        capture.copyBodyToResponse();
+    }
+
+    private static void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) response.setContentType(stored.contentType());
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static void sendError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(("{\"message\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String scoped(HttpServletRequest request, String key) {
+        Principal principal = request.getUserPrincipal();
+        return (principal == null ? "" : principal.getName()) + '\u0000' + key;
+    }
+
+    private static boolean isFormOrMultipart(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && (contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)
+                || contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE));
+    }
+
+    /**
+     * SHA-256 over method, URL with query string and body (or parameters and parts).
+     * Null when the parts add up to more than {@code maximumBodyBytes}.
+     */
+    private String fingerprint(HttpServletRequest request, byte[] body) throws IOException, ServletException {
+        MessageDigest digest = sha256();
+        update(digest, request.getMethod());
+        update(digest, request.getRequestURI());
+        update(digest, request.getQueryString());
+        if (body != null) {
+            digest.update(body);
+        } else {
+            for (Map.Entry<String, String[]> param : new TreeMap<>(request.getParameterMap()).entrySet()) {
+                update(digest, param.getKey());
+                for (String value : param.getValue()) update(digest, value);
+            }
+            if (request.getContentType().startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)) {
+                long remaining = maximumBodyBytes;
+                byte[] buffer = new byte[8192];
+                for (Part part : request.getParts()) {
+                    remaining -= part.getSize();
+                    if (remaining < 0) return null;
+                    update(digest, part.getName());
+                    update(digest, part.getSubmittedFileName());
+                    try (InputStream in = part.getInputStream()) {
+                        for (int n; (n = in.read(buffer)) > 0; ) digest.update(buffer, 0, n);
+                    }
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<StoredResponse> response) {
+
+        int bodyLength() {
+            StoredResponse stored = response.getNow(null);
+            return stored == null ? 0 : stored.body().length;
+        }
+    }
+
+    private record StoredResponse(int status, String contentType, byte[] body) {
+    }
+
+    /** Serves the body read up front for the fingerprint again to the controller. */
+    private static final class BufferedRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+    }
+}
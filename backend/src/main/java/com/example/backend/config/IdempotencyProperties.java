@@ -0,0 +1,31 @@
+package com.example.backend.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings of {@link IdempotencyFilter} under {@code directory.idempotency.*}.
+ * <ul>
+ *   <li>{@code ttl} – how long a key's response is kept for replay after the
+ *       first request with that key.</li>
+ *   <li>{@code maximumStoredBytes} – total size of the stored response bodies;
+ *       beyond it the least recently used keys are dropped first.</li>
+ *   <li>{@code inFlightWait} – how long a retry waits for the first request with
+ *       the same key to finish before it is answered 409.</li>
+ *   <li>{@code maximumBodySize} – largest request body a keyed write may have; the
+ *       filter reads it whole to fingerprint it, so a larger one is answered 413.
+ *       The default leaves room for a bulk request of
+ *       {@link com.example.backend.service.UserService#MAX_BULK_ROWS} rows.</li>
+ * </ul>
+ */
+@ConfigurationProperties("directory.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("PT24H") Duration ttl,
+        @DefaultValue("16MB") DataSize maximumStoredBytes,
+        @DefaultValue("PT10S") Duration inFlightWait,
+        @DefaultValue("2MB") DataSize maximumBodySize) {
+}
@@ -1,12 +1,20 @@
 package com.example.backend.config;
 
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import com.zaxxer.hikari.HikariDataSource;
+
 import javax.sql.DataSource;
 
 @Configuration
+@EnableConfigurationProperties(DataAccessProperties.class)
 public class JdbcConfig {
     private final DataSource dataSource;
 
@@ -18,4 +26,51 @@ public class JdbcConfig {
     public JdbcTemplate jdbcTemplate() {
         return new JdbcTemplate(dataSource);
     }
+
+    /**
+     * Migrates as usual, except in a CDS training run ({@code -Dspring.context.exit=onRefresh},
+     * see the cds Maven profile), which has to get through startup without a database.
+     * Also reads {@code spring.flyway.enabled} at run time: with AOT the Flyway
+     * beans exist whatever it is set to.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(Environment env) {
+        return flyway -> {
+            if (env.getProperty("spring.context.exit") == null
+                    && env.getProperty("spring.flyway.enabled", Boolean.class, true)) {
+                flyway.migrate();
+            }
+        };
+    }
+
+    /**
+     * Hands the {@link DataAccessProperties.Driver} settings to mssql-jdbc through
+     * the Hikari pool. Runs before initialization, i.e. before the pool has opened
+     * a connection and before {@link DatabaseGateConfig} wraps it.
+     */
+    @Bean
+    public static BeanPostProcessor sqlServerDriverSettings(Environment env) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)
+                        || hikari.getJdbcUrl() == null || !hikari.getJdbcUrl().startsWith("jdbc:sqlserver:")) {
+                    return bean;
+                }
+                // bound by hand: a BeanPostProcessor comes up before configuration properties beans
+                DataAccessProperties.Driver driver = Binder.get(env)
+                        .bindOrCreate("directory.jdbc", DataAccessProperties.class).driver();
+                hikari.addDataSourceProperty("disableStatementPooling", driver.statementPoolingCacheSize() <= 0);
+                hikari.addDataSourceProperty("statementPoolingCacheSize", driver.statementPoolingCacheSize());
+                hikari.addDataSourceProperty("serverPreparedStatementDiscardThreshold",
+                        driver.serverPreparedStatementDiscardThreshold());
+                hikari.addDataSourceProperty("enablePrepareOnFirstPreparedStatementCall",
+                        driver.enablePrepareOnFirstPreparedStatementCall());
+                hikari.addDataSourceProperty("selectMethod", driver.selectMethod());
+                hikari.addDataSourceProperty("responseBuffering", driver.responseBuffering());
+                hikari.addDataSourceProperty("sendStringParametersAsUnicode", driver.sendStringParametersAsUnicode());
+                return bean;
+            }
+        };
+    }
 }
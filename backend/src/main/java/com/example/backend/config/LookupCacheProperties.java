@@ -0,0 +1,28 @@
+package com.example.backend.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Per-lookup settings of {@code LookupCacheService} under {@code directory.lookups.*}.
+ * Defaults for each lookup are in directory.properties.
+ */
+@ConfigurationProperties("directory.lookups")
+public record LookupCacheProperties(
+        @DefaultValue Lookup companies,
+        @DefaultValue Lookup directorClasses,
+        @DefaultValue Lookup allClasses,
+        @DefaultValue Lookup businessUnit) {
+
+    /**
+     * {@code ttl} – age after which the next read reloads the entry in the
+     * background; that read still gets the cached value. {@code maximumSize} –
+     * entries kept, evicting the least used beyond it.
+     */
+    public record Lookup(
+            @DefaultValue("PT10M") Duration ttl,
+            @DefaultValue("10000") long maximumSize) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.backend.controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.backend.model.DirectorAssignment;
+
+/**
+ * Reads bulk uploads of the form {@code company,businessUnit,clazz,ntAccount[,version]},
+ * one row per line. A leading UTF-8 byte order mark is dropped, a header line
+ * starting with "company" is skipped, blank lines are ignored and fields may be
+ * double-quoted. An empty or missing version is read as none; bulk assign
+ * ignores it and bulk NT update rejects such rows.
+ */
+final class DirectorCsv {
+
+    private DirectorCsv() {
+    }
+
+    static List<DirectorAssignment> parse(Reader source) throws IOException {
+        List<DirectorAssignment> rows = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        int lineNo = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            // Excel's "CSV UTF-8" starts the file with a byte order mark
+            if (lineNo == 1 && line.startsWith("\uFEFF")) line = line.substring(1);
+            if (line.isBlank()) continue;
+            List<String> fields = split(line);
+            if (lineNo == 1 && fields.get(0).strip().equalsIgnoreCase("company")) continue;
+            if (fields.size() != 4 && fields.size() != 5) {
+                throw new IllegalArgumentException("Line " + lineNo + ": expected 4 or 5 fields but found " + fields.size());
+            }
+            String version = fields.size() == 5 && !fields.get(4).isBlank() ? fields.get(4).strip() : null;
+            rows.add(new DirectorAssignment(
+                    fields.get(0).strip(), fields.get(1).strip(), fields.get(2).strip(), fields.get(3).strip(), version));
+        }
+        return rows;
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
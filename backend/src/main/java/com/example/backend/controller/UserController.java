@@ -1,20 +1,45 @@
 package com.example.backend.controller;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.backend.model.AdUser;
+import com.example.backend.model.AuditEntry;
+import com.example.backend.model.Bootstrap;
+import com.example.backend.model.BusinessUnitRef;
+import com.example.backend.model.ClassRef;
+import com.example.backend.model.CompanyRef;
+import com.example.backend.model.Director;
+import com.example.backend.model.DirectorAssignment;
+import com.example.backend.model.DirectorSearch;
+import com.example.backend.model.DirectorUpdate;
+import com.example.backend.service.ChangeFeedService;
+import com.example.backend.service.DirectorCursor;
 import com.example.backend.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 
 
@@ -25,16 +50,25 @@ import com.example.backend.service.UserService;
 public class UserController {
     
     private final UserService userService;
+    private final ChangeFeedService changeFeed;
+    private final ObjectMapper objectMapper;
 
-    public UserController(UserService userSearchService) {
+    public UserController(UserService userSearchService, ChangeFeedService changeFeed, ObjectMapper objectMapper) {
         this.userService = userSearchService;
+        this.changeFeed = changeFeed;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/companies")
-    public List<Map<String, Object>> getCompanies() {
+    public List<CompanyRef> getCompanies() {
         return userService.getCompanies();
     }
 
+    @GetMapping("/bootstrap")
+    public Bootstrap bootstrap(@RequestParam String company) {
+        return userService.bootstrap(company);
+    }
+
     @GetMapping("/test")
     public String test() {
         return "Controller is working";
@@ -42,7 +76,7 @@ public class UserController {
     
 
     @GetMapping("/bu/class")
-    public List<Map<String, Object>> getBUsForClass(@RequestParam String company,
+    public List<BusinessUnitRef> getBUsForClass(@RequestParam String company,
                                             @RequestParam String clazz) {
         return userService.getBUsForClass(company, clazz);
     }
@@ -58,47 +92,138 @@ public class UserController {
     }
 
     @GetMapping("/classes")
-    public List<Map<String, Object>> getClassesForCompany(@RequestParam String company) {
+    public List<ClassRef> getClassesForCompany(@RequestParam String company) {
         return userService.getClassesForBU(company);
     }
 
     @GetMapping("/search/param")
-    public List<Map<String, Object>> searchDirector(@RequestParam String company,
+    public List<Director> searchDirector(@RequestParam String company,
                                             @RequestParam String clazz,
                                             @RequestParam String businessUnit) {
         return userService.getDirectorBasedOnParam(company, businessUnit, clazz);
     }
 
     @GetMapping("/search/all")
-    public List<Map<String, Object>> searchAll() {
+    public List<Director> searchAll() {
         return userService.getAllDirectors();
     }
     
     @GetMapping("/search/company")
-    public List<Map<String, Object>> searchByCompany(@RequestParam String company) {
+    public List<Director> searchByCompany(@RequestParam String company) {
         return userService.getListForCompanyOnly(company);
     }
 
+    /**
+     * Paged, filtered and sorted version of /search/all and /search/company. Pass
+     * the returned nextCursor as cursor to read the next page, with the same sort,
+     * direction and filters; a cursor sent with others is answered 400.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchPage(@RequestParam(required = false) String company,
+                                        @RequestParam(required = false) String businessUnit,
+                                        @RequestParam(required = false) String ntAccount,
+                                        @RequestParam(required = false) String classPrefix,
+                                        @RequestParam(defaultValue = "company") String sort,
+                                        @RequestParam(defaultValue = "asc") String direction,
+                                        @RequestParam(defaultValue = "50") int pageSize,
+                                        @RequestParam(required = false) String cursor) {
+        DirectorSearch search;
+        try {
+            if (!direction.equalsIgnoreCase("asc") && !direction.equalsIgnoreCase("desc")) {
+                throw new IllegalArgumentException("direction must be asc or desc.");
+            }
+            DirectorSearch query = new DirectorSearch(
+                    blankToNull(company), blankToNull(businessUnit), blankToNull(ntAccount), blankToNull(classPrefix),
+                    DirectorSearch.Sort.fromParam(sort), direction.equalsIgnoreCase("desc"),
+                    null,
+                    Math.max(1, Math.min(pageSize, UserService.MAX_PAGE_SIZE)));
+            search = query.startingAfter(DirectorCursor.decode(cursor, query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+        return ResponseEntity.ok(userService.searchDirectors(search));
+    }
+
     @GetMapping("/classes/all")
-    public List<Map<String, Object>> getAllClassesForCompany(@RequestParam String company) {
+    public List<ClassRef> getAllClassesForCompany(@RequestParam String company) {
         return userService.getAllClassesForCompany(company);
     }
 
     @GetMapping("/ntaccounts")
-    public ResponseEntity<List<Map<String, Object>>> getNtAccounts(@RequestParam String company) {
-        return ResponseEntity.ok(userService.getNTAccountsByCompany(company));
+    public ResponseEntity<StreamingResponseBody> getNtAccounts(@RequestParam String company) {
+        userService.requireKnownCompany(company); // fail before the body starts, not halfway through it
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.createGenerator(out)) {
+                // a scan failing halfway must leave the array unterminated, not a valid shorter list
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+                json.writeStartArray();
+                userService.streamNTAccountsByCompany(company, user -> {
+                    try {
+                        json.writeObject(user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/ntaccounts/suggest")
+    public List<AdUser> suggestNtAccounts(@RequestParam String company,
+                                          @RequestParam(defaultValue = "") String q,
+                                          @RequestParam(defaultValue = "20") int limit) {
+        return userService.suggestNTAccounts(company, q, limit);
+    }
+
+
+    /**
+     * Server-sent events for every director write, see {@link ChangeFeedService}.
+     * EventSource resumes through Last-Event-ID by itself; {@code since} does the
+     * same for clients that cannot set the header.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> changes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                              @RequestParam(required = false) String since) {
+        return ResponseEntity.ok()
+                // nginx and similar proxies would otherwise hold events back in their buffers
+                .header("X-Accel-Buffering", "no")
+                .body(changeFeed.subscribe(lastEventId != null ? lastEventId : since));
+    }
+
+
+    @GetMapping("/audit")
+    public List<AuditEntry> getAuditHistory(@RequestParam String company,
+                                            @RequestParam String clazz,
+                                            @RequestParam(defaultValue = "100") int limit) {
+        return userService.getAuditHistory(company, clazz, Math.max(1, Math.min(limit, UserService.MAX_PAGE_SIZE)));
     }
 
 
+    /**
+     * Needs the director row's {@code Version} as {@code version}; answers 409 with
+     * the current row when somebody else has written it since it was read.
+     */
     @PutMapping("/update-nt")
-    public Map<String, Object> updateNTAccount(@RequestBody Map<String, String> payload) {
+    public ResponseEntity<Map<String, Object>> updateNTAccount(@RequestBody Map<String, String> payload) {
         String company = payload.get("company");
         String businessUnit = payload.get("businessUnit");
         String clazz = payload.get("clazz");
         String newNTAccount = payload.get("ntAccount");
 
-        int rowsAffected = userService.updateNTAccount(company, businessUnit, clazz, newNTAccount);
-        return Map.of("rowsUpdated", rowsAffected);
+        DirectorUpdate result;
+        try {
+            result = userService.updateNTAccount(company, businessUnit, clazz, newNTAccount, payload.get("version"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+        if (result.conflict()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "The director was changed by someone else, reload it and try again.",
+                                 "current", result.current()));
+        }
+        return ResponseEntity.ok(Map.of("rowsUpdated", result.rowsUpdated(), "current", result.current()));
     }
 
 
@@ -127,6 +252,109 @@ public class UserController {
     }
 
 
+    @PostMapping(value = "/directors:bulkAssign", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> bulkAssignDirectors(@RequestBody List<DirectorAssignment> rows) {
+        return bulkAssign(rows);
+    }
+
+    @PostMapping(value = "/directors:bulkAssign", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> bulkAssignDirectorsCsv(@RequestParam("file") MultipartFile file) throws IOException {
+        List<DirectorAssignment> rows;
+        try {
+            rows = readCsv(file);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+        return bulkAssign(rows);
+    }
+
+    /**
+     * Every row needs the director's {@code version} as read (JSON field or fifth CSV
+     * column), like /update-nt; a row is only applied to a director still at that
+     * version and is answered {@code conflict: true} when the director has been
+     * written since. A row naming no director under that BU updates nothing.
+     */
+    @PostMapping(value = "/directors:bulkUpdateNt", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> bulkUpdateNTAccounts(@RequestBody List<DirectorAssignment> rows) {
+        return bulkUpdateNt(rows);
+    }
+
+    @PostMapping(value = "/directors:bulkUpdateNt", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> bulkUpdateNTAccountsCsv(@RequestParam("file") MultipartFile file) throws IOException {
+        List<DirectorAssignment> rows;
+        try {
+            rows = readCsv(file);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+        return bulkUpdateNt(rows);
+    }
+
+    private ResponseEntity<?> bulkAssign(List<DirectorAssignment> rows) {
+        String problem = firstInvalidRow(rows);
+        if (problem != null) {
+            return ResponseEntity.badRequest().body(Map.of("message", problem));
+        }
+        int[] codes = userService.bulkAssignDirectors(rows);
+        List<Map<String, Object>> results = new ArrayList<>(codes.length);
+        for (int i = 0; i < codes.length; i++) {
+            results.add(Map.of("row", i, "code", codes[i]));
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    private ResponseEntity<?> bulkUpdateNt(List<DirectorAssignment> rows) {
+        String problem = firstInvalidRow(rows);
+        if (problem != null) {
+            return ResponseEntity.badRequest().body(Map.of("message", problem));
+        }
+        int[] counts;
+        try {
+            counts = userService.bulkUpdateNTAccounts(rows);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+        List<Map<String, Object>> results = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            results.add(counts[i] == UserService.VERSION_CONFLICT
+                    ? Map.of("row", i, "rowsUpdated", 0, "conflict", true)
+                    : Map.of("row", i, "rowsUpdated", counts[i]));
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    private static List<DirectorAssignment> readCsv(MultipartFile file) throws IOException {
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            return DirectorCsv.parse(reader);
+        }
+    }
+
+    private static String firstInvalidRow(List<DirectorAssignment> rows) {
+        if (rows.size() > UserService.MAX_BULK_ROWS) {
+            return "At most " + UserService.MAX_BULK_ROWS + " rows per request, split the import.";
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            DirectorAssignment row = rows.get(i);
+            if (row == null) {
+                return "Row " + i + ": must be an object, not null.";
+            }
+            if (isBlank(row.company()) || isBlank(row.businessUnit())
+                    || isBlank(row.clazz()) || isBlank(row.ntAccount())) {
+                return "Row " + i + ": company, businessUnit, clazz and ntAccount are required.";
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String blankToNull(String value) {
+        return isBlank(value) ? null : value.strip();
+    }
+
+
     @DeleteMapping("/delete/bu")
     public Map<String, Object> deleteClassForCompany(@RequestParam String clazz, 
                                                 @RequestParam String company) {
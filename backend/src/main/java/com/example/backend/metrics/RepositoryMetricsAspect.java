@@ -0,0 +1,102 @@
+package com.example.backend.metrics;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.StringJoiner;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every public {@code UserRepository} method and records how many rows it
+ * returned (lists) or touched (batch update counts).
+ *
+ * Meters, all tagged with {@code method}:
+ * <ul>
+ *   <li>{@code directory.repository.query} – timer, also tagged {@code outcome}</li>
+ *   <li>{@code directory.repository.rows} – rows returned / affected per call</li>
+ *   <li>{@code directory.repository.errors} – failures, also tagged {@code exception}</li>
+ * </ul>
+ * Calls slower than {@code directory.metrics.slow-query-threshold} are logged with
+ * the shape of their arguments (type and length), never their values.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private static final Logger slowLog = LoggerFactory.getLogger("com.example.backend.slow-query");
+
+    private final MeterRegistry registry;
+    private final Duration slowThreshold;
+
+    public RepositoryMetricsAspect(MeterRegistry registry,
+                                   @Value("${directory.metrics.slow-query-threshold:PT0.5S}") Duration slowThreshold) {
+        this.registry = registry;
+        this.slowThreshold = slowThreshold;
+    }
+
+    @Around("execution(public * com.example.backend.repository.UserRepository.*(..))")
+    public Object measure(ProceedingJoinPoint call) throws Throwable {
+        String method = call.getSignature().getName();
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            Object result = call.proceed();
+            long rows = rowCount(result);
+            if (rows >= 0) {
+                DistributionSummary.builder("directory.repository.rows")
+                        .tag("method", method)
+                        .register(registry)
+                        .record(rows);
+            }
+            return result;
+        } catch (Throwable e) {
+            outcome = "error";
+            registry.counter("directory.repository.errors",
+                    "method", method, "exception", e.getClass().getSimpleName()).increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Timer.builder("directory.repository.query")
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .record(Duration.ofNanos(elapsed));
+            if (elapsed >= slowThreshold.toNanos()) {
+                slowLog.warn("Slow repository call {}({}) took {} ms [{}]",
+                        method, shapes(call.getArgs()), elapsed / 1_000_000, outcome);
+            }
+        }
+    }
+
+    private static long rowCount(Object result) {
+        if (result instanceof Collection<?> c) return c.size();
+        // no Integer case: the only int the repository returns is assignDirector's result code
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int n : counts) total += Math.max(n, 0);
+            return total;
+        }
+        return -1;
+    }
+
+    private static String shapes(Object[] args) {
+        StringJoiner out = new StringJoiner(", ");
+        for (Object arg : args) {
+            if (arg == null) out.add("null");
+            else if (arg instanceof CharSequence s) out.add("String(" + s.length() + ")");
+            else if (arg instanceof Collection<?> c) out.add(arg.getClass().getSimpleName() + "[" + c.size() + "]");
+            else out.add(arg.getClass().getSimpleName());
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * An entry of DATAWHSE..ADSUSERS, shaped as a picker option.
+ */
+@JsonPropertyOrder({"label", "value"})
+public record AdUser(String label, String value) {
+}
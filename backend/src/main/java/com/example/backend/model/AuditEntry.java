@@ -0,0 +1,24 @@
+package com.example.backend.model;
+
+import java.time.Instant;
+
+/**
+ * One recorded change to a director assignment. {@code ntAccountBefore} is null
+ * for an assignment, {@code ntAccountAfter} for a removal.
+ */
+public record AuditEntry(
+        Instant changedAt,
+        String changedBy,
+        String action,
+        String company,
+        String clazz,
+        String businessUnit,
+        String role,
+        String ntAccountBefore,
+        String ntAccountAfter) {
+
+    public static final String ASSIGN_DIRECTOR = "ASSIGN_DIRECTOR";
+    public static final String UPDATE_NT_ACCOUNT = "UPDATE_NT_ACCOUNT";
+    public static final String DELETE_ROW = "DELETE_ROW";
+    public static final String DELETE_CLASS = "DELETE_CLASS";
+}
@@ -0,0 +1,15 @@
+package com.example.backend.model;
+
+import java.util.List;
+
+/**
+ * Everything the UI needs for its first render of one company, in one document.
+ * Each list has the same element shape as the endpoint it replaces.
+ */
+public record Bootstrap(
+        List<CompanyRef> companies,    // /companies
+        List<ClassRef> allClasses,     // /classes/all
+        List<ClassRef> classes,        // /classes
+        List<Director> directors,      // /search/company
+        List<AdUser> ntAccounts) {     // /ntaccounts/suggest with an empty q: the picker's first options
+}
@@ -0,0 +1,8 @@
+package com.example.backend.model;
+
+/**
+ * A class of a company together with the business unit it is filed under.
+ * Only used internally to build the director snapshot, never serialized.
+ */
+public record ClassAssignment(String company, String clazz, String businessUnit) {
+}
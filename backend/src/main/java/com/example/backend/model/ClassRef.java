@@ -0,0 +1,6 @@
+package com.example.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record ClassRef(@JsonProperty("Class") String clazz) {
+}
@@ -0,0 +1,6 @@
+package com.example.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record CompanyRef(@JsonProperty("Company") String company) {
+}
@@ -0,0 +1,21 @@
+package com.example.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * A director row as returned by the search endpoints. Property names match the
+ * column aliases of the original queries so the JSON stays the same.
+ *
+ * {@code Version} is the row's rowversion in hex; /update-nt requires it back and
+ * answers 409 when the row has been written since.
+ */
+@JsonPropertyOrder({"Company", "BusinessUnit", "Class", "Role", "NT_Account", "Version"})
+public record Director(
+        @JsonProperty("Company") String company,
+        @JsonProperty("BusinessUnit") String businessUnit,
+        @JsonProperty("Class") String clazz,
+        @JsonProperty("Role") String role,
+        @JsonProperty("NT_Account") String ntAccount,
+        @JsonProperty("Version") String version) {
+}
@@ -0,0 +1,14 @@
+package com.example.backend.model;
+
+/**
+ * One row of a bulk assign / bulk NT update request. Field names match the
+ * single-row payloads of /add-director and /update-nt. {@code version} is the
+ * director row's Version as read, optional and only used by the NT update.
+ */
+public record DirectorAssignment(String company, String businessUnit, String clazz, String ntAccount,
+                                 String version) {
+
+    public DirectorAssignment(String company, String businessUnit, String clazz, String ntAccount) {
+        this(company, businessUnit, clazz, ntAccount, null);
+    }
+}
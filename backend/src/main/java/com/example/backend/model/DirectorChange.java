@@ -0,0 +1,8 @@
+package com.example.backend.model;
+
+/**
+ * A row touched by a single-row write, as reported by its OUTPUT clause. The
+ * values are the row's own, which is what the audit log records.
+ */
+public record DirectorChange(String role, String businessUnit, String ntAccountBefore, String ntAccountAfter) {
+}
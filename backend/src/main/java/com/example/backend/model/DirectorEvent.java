@@ -0,0 +1,17 @@
+package com.example.backend.model;
+
+import java.util.List;
+
+/**
+ * One entry of the /changes feed: the director rows of a (Company, Class) as they
+ * are after a write, which replace whatever the client holds for that class. An
+ * empty list means the class has no director any more; for {@code classDeleted}
+ * the class itself is gone from BUxClass as well.
+ */
+public record DirectorEvent(String type, String company, String clazz, List<Director> directors) {
+
+    public static final String ASSIGNED = "assigned";
+    public static final String UPDATED = "updated";
+    public static final String REMOVED = "removed";
+    public static final String CLASS_DELETED = "classDeleted";
+}
@@ -0,0 +1,10 @@
+package com.example.backend.model;
+
+import java.util.List;
+
+/**
+ * One page of /search. {@code nextCursor} is passed back as {@code cursor} to get
+ * the following page and is null on the last one.
+ */
+public record DirectorPage(List<Director> items, String nextCursor) {
+}
@@ -0,0 +1,39 @@
+package com.example.backend.model;
+
+import java.util.Locale;
+
+/**
+ * Filters, order and position of one page of /search. Null filters are not
+ * applied. {@code after} carries the sort key of the last row of the previous
+ * page, or is null for the first page.
+ */
+public record DirectorSearch(
+        String company,
+        String businessUnit,
+        String ntAccountContains,
+        String classPrefix,
+        Sort sort,
+        boolean descending,
+        Director after,
+        int pageSize) {
+
+    /** The same search, continuing after {@code last}. */
+    public DirectorSearch startingAfter(Director last) {
+        return new DirectorSearch(company, businessUnit, ntAccountContains, classPrefix, sort, descending, last, pageSize);
+    }
+
+    /** Leading column of the order; the remaining key columns break ties. */
+    public enum Sort {
+        COMPANY, CLASS, BUSINESS_UNIT, NT_ACCOUNT;
+
+        public static Sort fromParam(String value) {
+            return switch (value.toLowerCase(Locale.ROOT)) {
+                case "company"      -> COMPANY;
+                case "class"        -> CLASS;
+                case "businessunit" -> BUSINESS_UNIT;
+                case "ntaccount"    -> NT_ACCOUNT;
+                default             -> throw new IllegalArgumentException("Unknown sort: " + value);
+            };
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.backend.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a versioned single-row write. {@code current} holds the director
+ * rows of the (Company, Class, BU) as they are after the call: with the new
+ * Version when {@code rowsUpdated > 0}, and as somebody else left them when the
+ * expected Version no longer matched (rowsUpdated 0, current not empty).
+ */
+public record DirectorUpdate(int rowsUpdated, List<Director> current) {
+
+    public boolean conflict() {
+        return rowsUpdated == 0 && !current.isEmpty();
+    }
+}
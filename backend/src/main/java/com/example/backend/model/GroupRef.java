@@ -0,0 +1,7 @@
+package com.example.backend.model;
+
+/**
+ * A business unit description from CorporateQuote.dbo.Groups.
+ */
+public record GroupRef(String company, String groupNTDesc) {
+}
@@ -0,0 +1,49 @@
+package com.example.backend.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.example.backend.model.AuditEntry;
+
+@Repository
+public class AuditRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(List<AuditEntry> entries) {
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO PBOAssetMgmt.dbo.DirectorAudit
+                (ChangedAt, ChangedBy, Action, Company, Class, BusinessUnit, Role, NtAccountBefore, NtAccountAfter)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """, entries, entries.size(), (ps, e) -> {
+            ps.setObject(1, LocalDateTime.ofInstant(e.changedAt(), ZoneOffset.UTC));
+            ps.setString(2, e.changedBy());
+            ps.setString(3, e.action());
+            ps.setString(4, e.company());
+            ps.setString(5, e.clazz());
+            ps.setString(6, e.businessUnit());
+            ps.setString(7, e.role());
+            ps.setString(8, e.ntAccountBefore());
+            ps.setString(9, e.ntAccountAfter());
+        });
+    }
+
+    /** Newest first. */
+    public List<AuditEntry> findByClass(String company, String clazz, int limit) {
+        return jdbcTemplate.query("""
+            SELECT TOP (?) ChangedAt, ChangedBy, Action, Company, Class, BusinessUnit, Role,
+                           NtAccountBefore, NtAccountAfter
+            FROM PBOAssetMgmt.dbo.DirectorAudit
+            WHERE Company = ? AND Class = ?
+            ORDER BY ChangedAt DESC, Id DESC
+        """, DirectoryRowMappers.AUDIT_ENTRY, limit, company, clazz);
+    }
+}
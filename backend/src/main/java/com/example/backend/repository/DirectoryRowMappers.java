@@ -0,0 +1,98 @@
+package com.example.backend.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import com.example.backend.model.AdUser;
+import com.example.backend.model.AuditEntry;
+import com.example.backend.model.BusinessUnitRef;
+import com.example.backend.model.ClassAssignment;
+import com.example.backend.model.ClassRef;
+import com.example.backend.model.CompanyRef;
+import com.example.backend.model.Director;
+import com.example.backend.model.DirectorAssignment;
+import com.example.backend.model.DirectorChange;
+import com.example.backend.model.GroupRef;
+
+/**
+ * Row mappers for the directory queries in {@link UserRepository}.
+ *
+ * Company, Role and BU names repeat on nearly every row, so they are canonicalised
+ * through a small shared pool instead of keeping one String per row alive.
+ */
+public final class DirectoryRowMappers {
+
+    private static final int MAX_POOLED_VALUES = 10_000;
+    private static final ConcurrentHashMap<String, String> POOL = new ConcurrentHashMap<>();
+
+    public static final RowMapper<Director> DIRECTOR = (rs, rowNum) -> new Director(
+            pooled(rs.getString("Company")),
+            pooled(rs.getString("BusinessUnit")),
+            rs.getString("Class"),
+            pooled(rs.getString("Role")),
+            rs.getString("NT_Account"),
+            UserRepository.formatVersion(rs.getBytes("RowVersion")));
+
+    public static final RowMapper<CompanyRef> COMPANY = (rs, rowNum) ->
+            new CompanyRef(pooled(rs.getString("Company")));
+
+    public static final RowMapper<ClassRef> CLASS = (rs, rowNum) ->
+            new ClassRef(rs.getString("Class"));
+
+    public static final RowMapper<BusinessUnitRef> BUSINESS_UNIT = (rs, rowNum) ->
+            new BusinessUnitRef(pooled(rs.getString("GroupNTDesc")));
+
+    public static final RowMapper<ClassAssignment> CLASS_ASSIGNMENT = (rs, rowNum) -> new ClassAssignment(
+            pooled(rs.getString("Company")),
+            rs.getString("Class"),
+            pooled(rs.getString("BusinessUnit")));
+
+    public static final RowMapper<DirectorAssignment> DIRECTOR_ASSIGNMENT = (rs, rowNum) -> new DirectorAssignment(
+            pooled(rs.getString("Company")),
+            pooled(rs.getString("BusinessUnit")),
+            rs.getString("Class"),
+            rs.getString("NT_Account"));
+
+    public static final RowMapper<GroupRef> GROUP = (rs, rowNum) -> new GroupRef(
+            pooled(rs.getString("Company")),
+            pooled(rs.getString("GroupNTDesc")));
+
+    public static final RowMapper<AdUser> AD_USER = (rs, rowNum) ->
+            new AdUser(rs.getString("label"), rs.getString("value"));
+
+    public static final RowMapper<DirectorChange> DIRECTOR_CHANGE = (rs, rowNum) -> new DirectorChange(
+            pooled(rs.getString("Role")),
+            pooled(rs.getString("BusinessUnit")),
+            rs.getString("NtBefore"),
+            rs.getString("NtAfter"));
+
+    public static final RowMapper<AuditEntry> AUDIT_ENTRY = (rs, rowNum) -> new AuditEntry(
+            rs.getObject("ChangedAt", LocalDateTime.class).toInstant(ZoneOffset.UTC),
+            rs.getString("ChangedBy"),
+            pooled(rs.getString("Action")),
+            pooled(rs.getString("Company")),
+            rs.getString("Class"),
+            pooled(rs.getString("BusinessUnit")),
+            pooled(rs.getString("Role")),
+            rs.getString("NtAccountBefore"),
+            rs.getString("NtAccountAfter"));
+
+    private DirectoryRowMappers() {
+    }
+
+    /**
+     * Returns the canonical instance of a low-cardinality value. Once the pool is
+     * full new values are passed through unchanged rather than growing it further.
+     */
+    static String pooled(String value) {
+        if (value == null) return null;
+        String existing = POOL.get(value);
+        if (existing != null) return existing;
+        if (POOL.size() >= MAX_POOLED_VALUES) return value;
+        existing = POOL.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+}
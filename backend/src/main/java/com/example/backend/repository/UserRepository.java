@@ -1,205 +1,640 @@
 package com.example.backend.repository;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import com.example.backend.config.DataAccessProperties;
+import com.example.backend.model.AdUser;
+import com.example.backend.model.BusinessUnitRef;
+import com.example.backend.model.ClassAssignment;
+import com.example.backend.model.ClassRef;
+import com.example.backend.model.CompanyRef;
+import com.example.backend.model.Director;
+import com.example.backend.model.DirectorAssignment;
+import com.example.backend.model.DirectorChange;
+import com.example.backend.model.DirectorSearch;
+import com.example.backend.model.GroupRef;
+import com.microsoft.sqlserver.jdbc.ISQLServerConnection;
+import com.microsoft.sqlserver.jdbc.SQLServerResultSet;
+
 @Repository
 public class UserRepository {
 
     private final JdbcTemplate jdbcTemplate;
+    // rows pulled per round-trip when streaming ADSUSERS; 0 reads them without a cursor
+    private final int adUsersFetchSize;
 
-    public UserRepository(JdbcTemplate jdbcTemplate) {
+    public UserRepository(JdbcTemplate jdbcTemplate, DataAccessProperties properties) {
         this.jdbcTemplate = jdbcTemplate;
+        this.adUsersFetchSize = properties.fetchSize().scan();
     }
 
-    public List<Map<String, Object>> getCompanies() {
-        return jdbcTemplate.queryForList("""
-            SELECT DISTINCT Company FROM PBOAssetMgmt.dbo.AO_UserAssociation WHERE Role = 'director';
-        """);
+    public List<CompanyRef> getCompanies() {
+        return jdbcTemplate.query("""
+            SELECT DISTINCT Company FROM PBOAssetMgmt.dbo.AO_UserAssociation WHERE Role = 'director' ORDER BY Company;
+        """, DirectoryRowMappers.COMPANY);
     }
 
-    public List<Map<String, Object>> getAllClassesForCompany(String company) {
-    return jdbcTemplate.queryForList("""
+    public List<ClassRef> getAllClassesForCompany(String company) {
+    return jdbcTemplate.query("""
         SELECT DISTINCT Class FROM CorporateQuote.dbo.BUxClass WHERE Company = ? ORDER BY Class
-    """, company);
+    """, DirectoryRowMappers.CLASS, company);
     }
 
     public String getBusinessUnitForClass(String company, String clazz) {
-        List<Map<String, Object>> result = jdbcTemplate.queryForList("""
-            SELECT g.GroupNTDesc 
+        return jdbcTemplate.query("""
+            SELECT TOP (1) g.GroupNTDesc
             FROM CorporateQuote.dbo.BUxClass b
             JOIN CorporateQuote.dbo.Groups g ON b.BU = g.GID
             WHERE b.Class = ? AND b.Company = ?
-        """, clazz, company);
-        
-        return result.isEmpty() ? null : (String) result.get(0).get("GroupNTDesc");
+        """, rs -> rs.next() ? rs.getString(1) : null, clazz, company);
     }
     
-    public List<Map<String, Object>> getBUsForClass(String company, String clazz) {
-        return jdbcTemplate.queryForList("""
-            SELECT DISTINCT g.GroupNTDesc
-            FROM PBOAssetMgmt.dbo.AO_UserAssociation a
-            JOIN CorporateQuote.dbo.BUxClass b
-                ON a.Class = b.Class AND a.Company = b.Company
-            JOIN CorporateQuote.dbo.Groups g
-                ON b.BU = g.GID
-            WHERE a.Company = ? AND a.Class = ? AND a.Role = 'director';
-        """, company, clazz);
-    }
-
-    public List<Map<String, Object>> getClassesForCompany(String company) {
-        return jdbcTemplate.queryForList(""" 
+    public List<BusinessUnitRef> getBUsForClass(String company, String clazz) {
+        return jdbcTemplate.query("""
+            SELECT DISTINCT BusinessUnit AS GroupNTDesc
+            FROM PBOAssetMgmt.dbo.DirectorProjection
+            WHERE Company = ? AND Class = ?;
+        """, DirectoryRowMappers.BUSINESS_UNIT, company, clazz);
+    }
+
+    public List<ClassRef> getClassesForCompany(String company) {
+        return jdbcTemplate.query(""" 
             SELECT Class FROM PBOAssetMgmt.dbo.AO_UserAssociation WHERE Company = ? AND Role = 'director' ;  
-        """, company);
+        """, DirectoryRowMappers.CLASS, company);
     }
 
-    public List<Map<String, Object>> getDirectorBasedOnParam(String company, String businessUnit, String clazz) {
-        return jdbcTemplate.queryForList("""
-            SELECT  DISTINCT a.Company, g.GroupNTDesc as BusinessUnit, a.Class, a.Role, a.NT_Account
-            FROM PBOAssetMgmt.DBO.AO_UserAssociation a
-            JOIN CorporateQuote.dbo.BUxClass b
-                ON a.Class = b.Class AND a.Company = b.Company
-            JOIN CorporateQuote.dbo.Groups g
-                ON b.BU = g.GID
-            WHERE a.Company = ? AND g.GroupNTDesc = ? AND a.Class = ? AND a.Role = 'director'
-        """, company, businessUnit, clazz);
+    public List<Director> getDirectorBasedOnParam(String company, String businessUnit, String clazz) {
+        return jdbcTemplate.query("""
+            SELECT Company, BusinessUnit, Class, Role, NT_Account, RowVersion
+            FROM PBOAssetMgmt.dbo.DirectorProjection
+            WHERE Company = ? AND Class = ? AND BusinessUnit = ?
+        """, DirectoryRowMappers.DIRECTOR, company, clazz, businessUnit);
     }
 
-    public List<Map<String, Object>> getAllDirectors() {
-        return jdbcTemplate.queryForList("""
-            SELECT DISTINCT a.Company, g.GroupNTDesc as BusinessUnit, a.Class, a.Role, a.NT_Account
-            FROM PBOAssetMgmt.DBO.AO_UserAssociation a
-            JOIN CorporateQuote.dbo.BUxClass b ON a.Class = b.Class AND a.Company = b.Company
-            JOIN CorporateQuote.dbo.Groups g ON b.BU = g.GID
-            WHERE a.Role = 'director';
-        """);
+    /**
+     * In a fixed order, clustered index first, so two reads of unchanged data give
+     * equal lists; the snapshot compares them to decide whether anything changed.
+     */
+    public List<Director> getAllDirectors() {
+        return jdbcTemplate.query("""
+            SELECT Company, BusinessUnit, Class, Role, NT_Account, RowVersion
+            FROM PBOAssetMgmt.dbo.DirectorProjection
+            ORDER BY Company, Class, BusinessUnit, Role, NtKey, RowVersion;
+        """, DirectoryRowMappers.DIRECTOR);
     }
 
-    public List<Map<String, Object>> getListForCompanyOnly(String company) {
-        return jdbcTemplate.queryForList("""
-                SELECT DISTINCT a.Company, g.GroupNTDesc as BusinessUnit, a.Class, a.Role, a.NT_Account
-                FROM PBOAssetMgmt.DBO.AO_UserAssociation a
-                JOIN CorporateQuote.dbo.BUxClass b ON a.Class = b.Class AND a.Company = b.Company
-                JOIN CorporateQuote.dbo.Groups g ON b.BU = g.GID
-                WHERE a.Company =? AND a.Role = 'director';
-                """, company);
+    public List<ClassAssignment> getClassBusinessUnits() {
+        return jdbcTemplate.query("""
+            SELECT b.Company, b.Class, g.GroupNTDesc AS BusinessUnit
+            FROM CorporateQuote.dbo.BUxClass b
+            LEFT JOIN CorporateQuote.dbo.Groups g ON b.BU = g.GID
+            ORDER BY b.Company, b.Class
+        """, DirectoryRowMappers.CLASS_ASSIGNMENT);
+    }
+
+    public List<Director> getListForCompanyOnly(String company) {
+        return jdbcTemplate.query("""
+                SELECT Company, BusinessUnit, Class, Role, NT_Account, RowVersion
+                FROM PBOAssetMgmt.dbo.DirectorProjection
+                WHERE Company = ?;
+                """, DirectoryRowMappers.DIRECTOR, company);
+    }
+
+    /**
+     * One page of the director projection, filtered and ordered in SQL Server. Paging is by
+     * keyset rather than OFFSET: the sort key of the previous page's last row goes
+     * into the WHERE clause, so a deep page costs the same as the first one.
+     *
+     * Returns up to {@code pageSize + 1} rows; the extra row only tells the caller
+     * that there is a next page.
+     */
+    public List<Director> searchDirectors(DirectorSearch search) {
+        List<Object> args = new ArrayList<>();
+        args.add(search.pageSize() + 1);
+
+        StringBuilder sql = new StringBuilder("""
+            SELECT TOP (?) d.Company, d.BusinessUnit, d.Class, d.Role, d.NT_Account, d.RowVersion
+            FROM PBOAssetMgmt.dbo.DirectorProjection d
+            WHERE 1 = 1
+            """);
+        if (search.company() != null) {
+            sql.append("  AND d.Company = ?\n");
+            args.add(search.company());
+        }
+        if (search.businessUnit() != null) {
+            sql.append("  AND d.BuKey = ?\n");
+            args.add(search.businessUnit());
+        }
+        if (search.classPrefix() != null) {
+            sql.append("  AND d.Class LIKE ? ESCAPE '\\'\n");
+            args.add(escapeLike(search.classPrefix()) + "%");
+        }
+        if (search.ntAccountContains() != null) {
+            sql.append("  AND d.NT_Account LIKE ? ESCAPE '\\'\n");
+            args.add("%" + escapeLike(search.ntAccountContains()) + "%");
+        }
+
+        List<String> keyColumns = SEARCH_KEYS.get(search.sort());
+        if (search.after() != null) {
+            sql.append("  AND ");
+            appendAfter(sql, args, keyColumns, 0, search.descending() ? "<" : ">", search.after());
+            sql.append('\n');
+        }
+        String direction = search.descending() ? " DESC" : " ASC";
+        sql.append("ORDER BY ")
+           .append(String.join(", ", keyColumns.stream().map(c -> "d." + c + direction).toList()));
+
+        return jdbcTemplate.query(sql.toString(), DirectoryRowMappers.DIRECTOR, args.toArray());
+    }
+
+    // full sort key per order: leading column first, then the remaining columns as tie-breakers.
+    // BuKey and NtKey are the NULL-free ISNULL(..., '') columns: a NULL would fail every < / > test
+    private static final Map<DirectorSearch.Sort, List<String>> SEARCH_KEYS = Map.of(
+            DirectorSearch.Sort.COMPANY,       List.of("Company", "Class", "BuKey", "NtKey"),
+            DirectorSearch.Sort.CLASS,         List.of("Class", "Company", "BuKey", "NtKey"),
+            DirectorSearch.Sort.BUSINESS_UNIT, List.of("BuKey", "Company", "Class", "NtKey"),
+            DirectorSearch.Sort.NT_ACCOUNT,    List.of("NtKey", "Company", "Class", "BuKey"));
+
+    /** Expands (k1, k2, ...) > (v1, v2, ...), which T-SQL has no row-value syntax for. */
+    private static void appendAfter(StringBuilder sql, List<Object> args, List<String> columns, int i,
+                                    String op, Director after) {
+        String column = "d." + columns.get(i);
+        Object value = keyValue(columns.get(i), after);
+        sql.append('(').append(column).append(' ').append(op).append(" ?");
+        args.add(value);
+        if (i + 1 < columns.size()) {
+            sql.append(" OR (").append(column).append(" = ? AND ");
+            args.add(value);
+            appendAfter(sql, args, columns, i + 1, op, after);
+            sql.append(')');
+        }
+        sql.append(')');
     }
 
-    public int updateNTAccount(String company, String businessUnit, String clazz, String newNTAccount) {
-        return jdbcTemplate.update("""
-                UPDATE a SET a.NT_Account = ?
-                FROM PBOAssetMgmt.DBO.AO_UserAssociation a
+    private static String keyValue(String column, Director row) {
+        return switch (column) {
+            case "Company"      -> row.company();
+            case "Class"        -> row.clazz();
+            case "BuKey"        -> row.businessUnit() == null ? "" : row.businessUnit();
+            default             -> row.ntAccount() == null ? "" : row.ntAccount();
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_").replace("[", "\\[");
+    }
+
+    /**
+     * Returns the updated rows with their NT account before and after. Only rows
+     * still at {@code expectedVersion} are updated, so an empty result means the
+     * director is gone or was written by somebody else since it was read.
+     */
+    public List<DirectorChange> updateNTAccount(String company, String businessUnit, String clazz, String newNTAccount,
+                                                byte[] expectedVersion) {
+        return jdbcTemplate.query("""
+                SET NOCOUNT ON;
+                SET XACT_ABORT ON;
+
+                DECLARE @NT      nvarchar(255) = ?,
+                        @Company nvarchar(255) = ?,
+                        @Class   nvarchar(255) = ?,
+                        @BU      nvarchar(255) = ?,
+                        @Version binary(8)     = ?;
+                """ + CHANGED_ROWS + """
+
+                BEGIN TRANSACTION;
+                """ + UPDATE_NT_ACCOUNT.formatted("@NT", "@Company", "@Class", "@BU",
+                        "OUTPUT deleted.Role, deleted.BU, deleted.NT_Account, inserted.NT_Account INTO @Changed",
+                        "\n  AND a.RowVersion = @Version") + """
+                ;
+                IF @@ROWCOUNT > 0
+                BEGIN
+                """ + refreshProjection("@Company", "@Class") + """
+                END
+                COMMIT TRANSACTION;
+
+                SELECT Role, BusinessUnit, NtBefore, NtAfter FROM @Changed;
+                """, DirectoryRowMappers.DIRECTOR_CHANGE, newNTAccount, company, clazz, businessUnit, expectedVersion);
+    }
+
+    // filled by the OUTPUT clause of a single-row write and returned as its result
+    private static final String CHANGED_ROWS = """
+                DECLARE @Changed TABLE (Role nvarchar(50), BusinessUnit nvarchar(255),
+                                        NtBefore nvarchar(255), NtAfter nvarchar(255));
+                """;
+
+    // the BU is matched through the projection, which already holds the class's resolved BU names
+    private static final String UPDATE_NT_ACCOUNT = """
+                UPDATE a SET a.NT_Account = %1$s
+                %5$s
+                FROM PBOAssetMgmt.dbo.AO_UserAssociation a
+                WHERE a.Company = %2$s AND a.Class = %3$s AND a.Role = 'director'
+                  AND EXISTS (SELECT 1 FROM PBOAssetMgmt.dbo.DirectorProjection p
+                              WHERE p.Company = a.Company AND p.Class = a.Class AND p.BusinessUnit = %4$s)%6$s""";
+
+    private static final String PROJECTION_DELETE = """
+                DELETE FROM PBOAssetMgmt.dbo.DirectorProjection WHERE Company = %1$s AND Class = %2$s""";
+
+    private static final String PROJECTION_INSERT = """
+                INSERT INTO PBOAssetMgmt.dbo.DirectorProjection (Company, Class, BusinessUnit, Role, NT_Account, RowVersion)
+                SELECT DISTINCT a.Company, a.Class, g.GroupNTDesc, a.Role, a.NT_Account, a.RowVersion
+                FROM PBOAssetMgmt.dbo.AO_UserAssociation a
                 JOIN CorporateQuote.dbo.BUxClass b ON a.Class = b.Class AND a.Company = b.Company
                 JOIN CorporateQuote.dbo.Groups g ON b.BU = g.GID
-                WHERE a.Company = ? AND a.Class = ? AND g.GroupNTDesc = ? AND a.Role = 'director';
-                """, newNTAccount, company, clazz, businessUnit);
+                WHERE a.Role = 'director'%s""";
+
+    /** T-SQL that re-derives the projection rows of one (Company, Class) from the base tables. */
+    private static String refreshProjection(String company, String clazz) {
+        return PROJECTION_DELETE.formatted(company, clazz) + ";\n"
+                + PROJECTION_INSERT.formatted(" AND a.Company = " + company + " AND a.Class = " + clazz) + ";\n";
     }
 
-    public List<Map<String, Object>> getDisplayNameAndNTAccounts(String company) {
-        String prefix = switch (company) {
-            case "FUTA" -> "ASIA\\";
-            case "FUTE" -> "EUR\\";
-            case "FUTI" -> "NA\\";
-            default      -> throw new IllegalArgumentException("Unknown company: " + company);
+    /**
+     * Re-derives the projection rows of each (Company, Class) in {@code classes}, one
+     * entry per pair. Used by the bulk writes, inside their transaction.
+     */
+    public void refreshDirectorProjection(List<DirectorAssignment> classes) {
+        if (classes.isEmpty()) return;
+        ParameterizedPreparedStatementSetter<DirectorAssignment> byClass = (ps, row) -> {
+            ps.setString(1, row.company());
+            ps.setString(2, row.clazz());
         };
+        jdbcTemplate.batchUpdate(PROJECTION_DELETE.formatted("?", "?"), classes, BATCH_SIZE, byClass);
+        jdbcTemplate.batchUpdate(PROJECTION_INSERT.formatted(" AND a.Company = ? AND a.Class = ?"), classes, BATCH_SIZE, byClass);
+    }
 
-        return jdbcTemplate.queryForList("""
+    /**
+     * Brings the whole projection in line with the base tables, which picks up edits
+     * made outside this application. Only rows that differ are inserted, deleted or
+     * get their version updated, so readers of unchanged classes are not blocked;
+     * still a full read of the three source tables, hence only run on demand.
+     */
+    public void mergeDirectorProjection() {
+        jdbcTemplate.execute("""
+                SET NOCOUNT ON;
+                SET XACT_ABORT ON;
+                MERGE PBOAssetMgmt.dbo.DirectorProjection WITH (HOLDLOCK) AS p
+                USING (
+                    SELECT a.Company, a.Class, g.GroupNTDesc AS BusinessUnit, a.Role, a.NT_Account,
+                           MAX(a.RowVersion) AS RowVersion
+                    FROM PBOAssetMgmt.dbo.AO_UserAssociation a
+                    JOIN CorporateQuote.dbo.BUxClass b ON a.Class = b.Class AND a.Company = b.Company
+                    JOIN CorporateQuote.dbo.Groups g ON b.BU = g.GID
+                    WHERE a.Role = 'director'
+                    GROUP BY a.Company, a.Class, g.GroupNTDesc, a.Role, a.NT_Account
+                ) AS s
+                ON p.Company = s.Company AND p.Class = s.Class AND p.Role = s.Role
+                   -- NULL-safe equality on the nullable columns
+                   AND EXISTS (SELECT p.BusinessUnit, p.NT_Account INTERSECT SELECT s.BusinessUnit, s.NT_Account)
+                WHEN MATCHED AND (p.RowVersion IS NULL OR p.RowVersion <> s.RowVersion) THEN
+                    UPDATE SET RowVersion = s.RowVersion
+                WHEN NOT MATCHED BY TARGET THEN
+                    INSERT (Company, Class, BusinessUnit, Role, NT_Account, RowVersion)
+                    VALUES (s.Company, s.Class, s.BusinessUnit, s.Role, s.NT_Account, s.RowVersion)
+                WHEN NOT MATCHED BY SOURCE THEN
+                    DELETE;
+                """);
+    }
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String AD_USERS_SQL = """
             SELECT  DisplayName AS label,
                     NT_Account  AS value
             FROM    DATAWHSE..ADSUSERS
             WHERE   NT_Account LIKE ?
             ORDER BY DisplayName
-        """, prefix + "%");
-    }
+        """;
 
+    public static final List<String> REGION_COMPANIES = List.of("FUTA", "FUTE", "FUTI");
 
+    /** Director "Version" as returned by the read endpoints: the row's rowversion as 16 hex digits. */
+    public static String formatVersion(byte[] rowVersion) {
+        return rowVersion == null ? null : VERSION_HEX.formatHex(rowVersion);
+    }
 
-    public int assignDirector(String company,
-                            String businessUnit,
-                            String clazz,
-                            String ntAccount) {
+    public static byte[] parseVersion(String version) {
+        if (version == null || version.length() != 16) {
+            throw new IllegalArgumentException("version must be the 16 hex digit Version of the director row.");
+        }
+        try {
+            return VERSION_HEX.parseHex(version);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("version must be the 16 hex digit Version of the director row.");
+        }
+    }
+
+    private static final HexFormat VERSION_HEX = HexFormat.of().withUpperCase();
 
-        // -------- 1. prefix handling ----------
-        String prefix = switch (company) {
+    public static String regionPrefix(String company) {
+        return switch (company) {
             case "FUTA" -> "ASIA\\";
             case "FUTE" -> "EUR\\";
             case "FUTI" -> "NA\\";
-            default     -> throw new IllegalArgumentException("Unknown company: " + company);
+            default      -> throw new IllegalArgumentException("Unknown company: " + company);
         };
+    }
+
+    public static String withRegionPrefix(String company, String ntAccount) {
+        String prefix = regionPrefix(company);
         if (!ntAccount.startsWith(prefix)) {
             ntAccount = prefix + ntAccount.replaceFirst("^(ASIA|EUR|NA)\\\\", "");
         }
+        return ntAccount;
+    }
+
+    public List<AdUser> getDisplayNameAndNTAccounts(String company) {
+        String pattern = regionPrefix(company) + "%";
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = prepareAdUsersScan(con);
+            ps.setString(1, pattern);
+            return ps;
+        }, DirectoryRowMappers.AD_USER);
+    }
+
+    /**
+     * A forward-only server cursor, whatever the connection's selectMethod, so the
+     * scan fetch size is honoured. Other databases (the benchmarks' H2) read directly.
+     */
+    private PreparedStatement prepareAdUsersScan(Connection con) throws SQLException {
+        if (adUsersFetchSize <= 0 || !con.isWrapperFor(ISQLServerConnection.class)) {
+            return con.prepareStatement(AD_USERS_SQL);
+        }
+        PreparedStatement ps = con.prepareStatement(AD_USERS_SQL,
+                SQLServerResultSet.TYPE_SS_SERVER_CURSOR_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(adUsersFetchSize);
+        return ps;
+    }
+
+    /**
+     * Same rows as {@link #getDisplayNameAndNTAccounts(String)}, handed to the sink
+     * one at a time while the ResultSet is read instead of collected into a list.
+     */
+    public void streamDisplayNameAndNTAccounts(String company, Consumer<AdUser> sink) {
+        String pattern = regionPrefix(company) + "%";
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = prepareAdUsersScan(con);
+            ps.setString(1, pattern);
+            return ps;
+        }, (RowCallbackHandler) rs -> sink.accept(DirectoryRowMappers.AD_USER.mapRow(rs, rs.getRow())));
+    }
+
+
+
+    /**
+     * Result codes: 1 inserted, -1 class missing in BUxClass, 0 BU description not
+     * found, 3 a director already exists on this Class+BU, 2 the class already has a
+     * director under a different BU.
+     *
+     * All checks, the insert and the refresh of the class's DirectorProjection rows
+     * run as one batch inside one transaction. The UPDLOCK/HOLDLOCK range locks on
+     * the director rows make concurrent assigns for the same class queue behind each
+     * other instead of both passing the checks.
+     */
+    public int assignDirector(String company,
+                            String businessUnit,
+                            String clazz,
+                            String ntAccount) {
+
+        Integer code = jdbcTemplate.queryForObject(ASSIGN_DIRECTOR_SQL, Integer.class,
+                company, businessUnit, clazz, withRegionPrefix(company, ntAccount));
+        return code == null ? 0 : code;
+    }
+
+    private static final String ASSIGN_DIRECTOR_SQL = """
+            SET NOCOUNT ON;
+            SET XACT_ABORT ON;
+
+            DECLARE @Company nvarchar(255) = ?,
+                    @BU      nvarchar(255) = ?,
+                    @Class   nvarchar(255) = ?,
+                    @NT      nvarchar(255) = ?,
+                    @Result  int;
 
-        // -------- 2. class must exist ----------
-        boolean classExists = Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
-            SELECT CASE WHEN EXISTS (
-                SELECT 1 FROM CorporateQuote.dbo.BUxClass
-                WHERE Company = ? AND Class = ?
-            ) THEN 1 ELSE 0 END
-        """, Boolean.class, company, clazz));
-        if (!classExists) return -1;      // class missing in BUxClass
-
-        // -------- 3. BU must map to a GID ----------
-        // Integer gid = jdbcTemplate.queryForObject("""
-        //     SELECT GID FROM CorporateQuote.dbo.Groups
-        //     WHERE Company = ? AND GroupNTDesc = ?
-        // """, Integer.class, company, businessUnit);
-        // if (gid == null) return 0;        // BU description not found
-
-        boolean gidExists = Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
-            SELECT CASE WHEN EXISTS (
-                SELECT 1
-                FROM CorporateQuote.dbo.Groups
-                WHERE Company = ? AND GroupNTDesc = ?
-            ) THEN 1 ELSE 0 END
-        """, Boolean.class, company, businessUnit));
-
-        if (!gidExists) return 0; // BU description not found
-
-
-        // -------- 4. *NEW* : any director already on this Class+BU ? ----------
-        boolean directorExists = Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
-            SELECT CASE WHEN EXISTS (
-                SELECT 1 FROM PBOAssetMgmt.dbo.AO_UserAssociation
-                WHERE Company = ? AND Class = ? AND BU = ? AND Role = 'director'
-            ) THEN 1 ELSE 0 END
-        """, Boolean.class, company, clazz, businessUnit));
-        if (directorExists) return 3;     // << we’ll treat 3 as “duplicate director”
-
-        // -------- 5. same-class-different-BU conflict ----------
-        boolean diffBuConflict = Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
-            SELECT CASE WHEN EXISTS (
-                SELECT 1 FROM PBOAssetMgmt.dbo.AO_UserAssociation
-                WHERE Company = ? AND Class = ? AND BU <> ? AND Role = 'director'
-            ) THEN 1 ELSE 0 END
-        """, Boolean.class, company, clazz, businessUnit));
-        if (diffBuConflict) return 2;     // original “class exists in a different BU”
-
-        // -------- 6. insert if the exact row is new ----------
-        return jdbcTemplate.update("""
-            IF NOT EXISTS (
-                SELECT 1 FROM PBOAssetMgmt.dbo.AO_UserAssociation
-                WHERE Company = ? AND Class = ? AND NT_Account = ? AND BU = ? AND Role = 'director'
-            )
+            BEGIN TRANSACTION;
+
+            IF NOT EXISTS (SELECT 1 FROM CorporateQuote.dbo.BUxClass
+                           WHERE Company = @Company AND Class = @Class)
+                SET @Result = -1;          -- class missing in BUxClass
+            ELSE IF NOT EXISTS (SELECT 1 FROM CorporateQuote.dbo.Groups
+                                WHERE Company = @Company AND GroupNTDesc = @BU)
+                SET @Result = 0;           -- BU description not found
+            ELSE IF EXISTS (SELECT 1 FROM PBOAssetMgmt.dbo.AO_UserAssociation WITH (UPDLOCK, HOLDLOCK)
+                            WHERE Company = @Company AND Class = @Class AND BU = @BU AND Role = 'director')
+                SET @Result = 3;           -- duplicate director
+            ELSE IF EXISTS (SELECT 1 FROM PBOAssetMgmt.dbo.AO_UserAssociation WITH (UPDLOCK, HOLDLOCK)
+                            WHERE Company = @Company AND Class = @Class AND BU <> @BU AND Role = 'director')
+                SET @Result = 2;           -- class exists in a different BU
+            ELSE
+            BEGIN
+                INSERT INTO PBOAssetMgmt.dbo.AO_UserAssociation
+                    (Company, Class, NT_Account, BU, Role)
+                VALUES (@Company, @Class, @NT, @BU, 'director');
+                SET @Result = @@ROWCOUNT;
+            """ + refreshProjection("@Company", "@Class") + """
+            END
+
+            COMMIT TRANSACTION;
+
+            SELECT @Result;
+        """;
+
+
+    /**
+     * CHANGE_TRACKING_CURRENT_VERSION() of the two directory databases. The function
+     * is database-scoped, so it is evaluated through each database's sp_executesql.
+     * Requires change tracking to be enabled on both databases.
+     */
+    public List<Long> getChangeTrackingVersions() {
+        return jdbcTemplate.queryForList("""
+            SET NOCOUNT ON;
+            DECLARE @pbo bigint, @cq bigint;
+            EXEC PBOAssetMgmt.sys.sp_executesql N'SELECT @v = CHANGE_TRACKING_CURRENT_VERSION()', N'@v bigint OUTPUT', @v = @pbo OUTPUT;
+            EXEC CorporateQuote.sys.sp_executesql N'SELECT @v = CHANGE_TRACKING_CURRENT_VERSION()', N'@v bigint OUTPUT', @v = @cq OUTPUT;
+            SELECT v FROM (VALUES (1, @pbo), (2, @cq)) AS t(i, v) ORDER BY i;
+        """, Long.class);
+    }
+
+    public List<GroupRef> getGroups() {
+        return jdbcTemplate.query("""
+            SELECT Company, GroupNTDesc FROM CorporateQuote.dbo.Groups
+        """, DirectoryRowMappers.GROUP);
+    }
+
+    /**
+     * Director rows of the given (Company, Class) pairs, with update range locks
+     * held until the surrounding transaction ends, so nobody can add a director to
+     * one of these classes while a bulk import is being validated. FORCESEEK keeps
+     * the locks on those keys rather than on every director row.
+     */
+    public List<ClassAssignment> getDirectorClassesForUpdate(List<DirectorAssignment> classes) {
+        return queryDirectorsForUpdate("a.Company, a.Class, a.BU AS BusinessUnit",
+                DirectoryRowMappers.CLASS_ASSIGNMENT, classes);
+    }
+
+    /**
+     * Director rows, with their current NT account, of the given (Company, Class)
+     * pairs, locked like {@link #getDirectorClassesForUpdate} so the values are
+     * still the ones being overwritten when the surrounding transaction updates them.
+     */
+    public List<DirectorAssignment> getDirectorNtAccountsForUpdate(List<DirectorAssignment> classes) {
+        return queryDirectorsForUpdate("a.Company, a.BU AS BusinessUnit, a.Class, a.NT_Account",
+                DirectoryRowMappers.DIRECTOR_ASSIGNMENT, classes);
+    }
+
+    private <T> List<T> queryDirectorsForUpdate(String columns, RowMapper<T> mapper, List<DirectorAssignment> classes) {
+        List<T> result = new ArrayList<>();
+        // two parameters per pair, well under SQL Server's 2100 per statement
+        for (int from = 0; from < classes.size(); from += BATCH_SIZE) {
+            List<DirectorAssignment> chunk = classes.subList(from, Math.min(from + BATCH_SIZE, classes.size()));
+            List<Object> args = new ArrayList<>(chunk.size() * 2);
+            for (DirectorAssignment c : chunk) {
+                args.add(c.company());
+                args.add(c.clazz());
+            }
+            result.addAll(jdbcTemplate.query("""
+                SELECT %s
+                FROM (VALUES %s) AS k (Company, Class)
+                JOIN PBOAssetMgmt.dbo.AO_UserAssociation a WITH (UPDLOCK, HOLDLOCK, FORCESEEK)
+                  ON a.Role = 'director' AND a.Company = k.Company AND a.Class = k.Class;
+            """.formatted(columns, String.join(", ", Collections.nCopies(chunk.size(), "(?, ?)"))),
+                    mapper, args.toArray()));
+        }
+        return result;
+    }
+
+    /** NT accounts are expected to carry their region prefix already. */
+    public void insertDirectors(List<DirectorAssignment> rows) {
+        jdbcTemplate.batchUpdate("""
             INSERT INTO PBOAssetMgmt.dbo.AO_UserAssociation
                 (Company, Class, NT_Account, BU, Role)
             VALUES (?, ?, ?, ?, 'director')
-        """, company, clazz, ntAccount, businessUnit,   // IF
-            company, clazz, ntAccount, businessUnit);  // INSERT
+        """, rows, BATCH_SIZE, (ps, row) -> {
+            ps.setString(1, row.company());
+            ps.setString(2, row.clazz());
+            ps.setString(3, row.ntAccount());
+            ps.setString(4, row.businessUnit());
+        });
     }
 
+    /**
+     * Returns the number of rows updated for each entry, in input order. Every row
+     * carries the version it was read at and only updates a director still at it.
+     */
+    public int[] updateNTAccounts(List<DirectorAssignment> rows) {
+        return jdbcTemplate.batchUpdate(UPDATE_NT_ACCOUNT.formatted("?", "?", "?", "?", "",
+                "\n  AND a.RowVersion = ?"), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                DirectorAssignment row = rows.get(i);
+                ps.setString(1, row.ntAccount());
+                ps.setString(2, row.company());
+                ps.setString(3, row.clazz());
+                ps.setString(4, row.businessUnit());
+                ps.setBytes(5, parseVersion(row.version()));
+            }
 
-    public int deleteClassByCompany(String clazz, String company){
-        String sql = "DELETE FROM CorporateQuote.dbo.BUxClass WHERE Class = ? AND Company = ?";
-        return jdbcTemplate.update(sql, clazz, company);
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
     }
 
-    public int deleteRow(String clazz, String company) {
-        String sql = "DELETE FROM PBOAssetMgmt.dbo.AO_UserAssociation WHERE Class = ? AND Company = ?";
-        return jdbcTemplate.update(sql, clazz, company);
+    /**
+     * Positions, within {@code rows}, of the rows whose director exists under the
+     * named BU at a version other than the one they carry: the ones
+     * {@link #updateNTAccounts} missed because somebody else wrote them first, as
+     * opposed to rows naming no such director.
+     */
+    public Set<Integer> findStaleVersions(List<DirectorAssignment> rows) {
+        Set<Integer> stale = new HashSet<>();
+        // five parameters per row, under SQL Server's 2100 per statement
+        int chunkSize = 400;
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<DirectorAssignment> chunk = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+            List<Object> args = new ArrayList<>(chunk.size() * 5);
+            for (int i = 0; i < chunk.size(); i++) {
+                DirectorAssignment row = chunk.get(i);
+                args.add(from + i);
+                args.add(row.company());
+                args.add(row.clazz());
+                args.add(row.businessUnit());
+                args.add(parseVersion(row.version()));
+            }
+            stale.addAll(jdbcTemplate.queryForList("""
+                SELECT k.RowIndex
+                FROM (VALUES %s) AS k (RowIndex, Company, Class, BusinessUnit, Version)
+                WHERE EXISTS (SELECT 1 FROM PBOAssetMgmt.dbo.AO_UserAssociation a
+                              WHERE a.Role = 'director' AND a.Company = k.Company AND a.Class = k.Class
+                                AND a.RowVersion <> k.Version
+                                AND EXISTS (SELECT 1 FROM PBOAssetMgmt.dbo.DirectorProjection p
+                                            WHERE p.Company = a.Company AND p.Class = a.Class
+                                              AND p.BusinessUnit = k.BusinessUnit));
+            """.formatted(String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?, ?, ?)"))),
+                    Integer.class, args.toArray()));
+        }
+        return stale;
+    }
+
+    /** Returns one entry per deleted BUxClass row, carrying the BU name it mapped the class to. */
+    public List<DirectorChange> deleteClassByCompany(String clazz, String company){
+        return deleteAndRefreshProjection("""
+                DELETE FROM CorporateQuote.dbo.BUxClass
+                OUTPUT NULL, CAST(deleted.BU AS nvarchar(255)), NULL, NULL INTO @Changed
+                WHERE Class = @Class AND Company = @Company
+                """, """
+                SELECT c.Role, ISNULL(g.GroupNTDesc, c.BusinessUnit) AS BusinessUnit, c.NtBefore, c.NtAfter
+                FROM @Changed c
+                LEFT JOIN CorporateQuote.dbo.Groups g ON CAST(g.GID AS nvarchar(255)) = c.BusinessUnit
+                """, clazz, company);
+    }
+
+    /** Returns the deleted rows, all roles, with the NT account each one held. */
+    public List<DirectorChange> deleteRow(String clazz, String company) {
+        return deleteAndRefreshProjection("""
+                DELETE FROM PBOAssetMgmt.dbo.AO_UserAssociation
+                OUTPUT deleted.Role, deleted.BU, deleted.NT_Account, NULL INTO @Changed
+                WHERE Class = @Class AND Company = @Company
+                """, """
+                SELECT Role, BusinessUnit, NtBefore, NtAfter FROM @Changed
+                """, clazz, company);
+    }
+
+    private List<DirectorChange> deleteAndRefreshProjection(String delete, String result, String clazz, String company) {
+        return jdbcTemplate.query("""
+                SET NOCOUNT ON;
+                SET XACT_ABORT ON;
+
+                DECLARE @Class   nvarchar(255) = ?,
+                        @Company nvarchar(255) = ?;
+                """ + CHANGED_ROWS + """
+
+                BEGIN TRANSACTION;
+                """ + delete + """
+                ;
+                """ + refreshProjection("@Company", "@Class") + """
+                COMMIT TRANSACTION;
+
+                """ + result, DirectoryRowMappers.DIRECTOR_CHANGE, clazz, company);
     }
 
 }
\ No newline at end of file
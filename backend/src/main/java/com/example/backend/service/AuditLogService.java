@@ -0,0 +1,296 @@
+package com.example.backend.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.example.backend.model.AuditEntry;
+import com.example.backend.repository.AuditRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+
+import static com.example.backend.service.DirectorSnapshotService.key;
+
+/**
+ * Write-behind audit log of director changes. Writers only append to a bounded
+ * in-memory queue; a scheduled task drains it into DirectorAudit with one JDBC
+ * batch per {@code batch-size} entries.
+ *
+ * Nothing is dropped: a full queue makes the writer append its entry to the
+ * local fallback file itself, as does a failed batch insert, and the queue is
+ * drained once more when the application shuts down. The fallback file is
+ * replayed into DirectorAudit on the first flush after startup and after every
+ * flush that persisted a batch; an entry may be inserted twice if the
+ * application dies in the middle of a replay, never lost.
+ *
+ * Meters: {@code directory.audit.queue.size} and {@code .remaining} gauges,
+ * {@code directory.audit.entries} counter tagged {@code outcome} (persisted,
+ * fallback, overflow, replayed) and the {@code directory.audit.flush} timer.
+ */
+@Service
+public class AuditLogService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogService.class);
+
+    private final AuditRepository repository;
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final int batchSize;
+    private final Path fallbackFile;
+    // the fallback file is moved here while it is being replayed, so writers keep appending to a fresh one
+    private final Path replayFile;
+
+    // ConcurrentLinkedQueue is unbounded; the counter bounds it without taking a lock
+    private final ConcurrentLinkedQueue<AuditEntry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ReentrantLock fileLock = new ReentrantLock();
+    private volatile boolean closed;
+    // guarded by flushLock
+    private boolean replayOnNextFlush = true;
+
+    private final Counter persisted;
+    private final Counter fallback;
+    private final Counter overflow;
+    private final Counter replayed;
+    private final Timer flushTimer;
+
+    public AuditLogService(AuditRepository repository,
+                           ObjectMapper objectMapper,
+                           MeterRegistry registry,
+                           @Value("${directory.audit.queue-capacity:10000}") int capacity,
+                           @Value("${directory.audit.batch-size:200}") int batchSize,
+                           @Value("${directory.audit.fallback-file:audit-fallback.jsonl}") Path fallbackFile) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.fallbackFile = fallbackFile;
+        this.replayFile = fallbackFile.resolveSibling(fallbackFile.getFileName() + ".replay");
+
+        Gauge.builder("directory.audit.queue.size", queued, AtomicInteger::get).register(registry);
+        Gauge.builder("directory.audit.queue.remaining", queued, q -> capacity - q.get()).register(registry);
+        this.persisted = registry.counter("directory.audit.entries", "outcome", "persisted");
+        this.fallback = registry.counter("directory.audit.entries", "outcome", "fallback");
+        this.overflow = registry.counter("directory.audit.entries", "outcome", "overflow");
+        this.replayed = registry.counter("directory.audit.entries", "outcome", "replayed");
+        this.flushTimer = registry.timer("directory.audit.flush");
+    }
+
+    public void record(String action, String company, String clazz, String businessUnit, String role,
+                       String ntAccountBefore, String ntAccountAfter) {
+        AuditEntry entry = new AuditEntry(Instant.now(), currentActor(), action, company, clazz,
+                businessUnit, role, ntAccountBefore, ntAccountAfter);
+        if (closed) {
+            appendToFile(List.of(entry));
+            fallback.increment();
+            return;
+        }
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            // backpressure: the writer that finds the queue full pays for the disk write itself
+            appendToFile(List.of(entry));
+            overflow.increment();
+            return;
+        }
+        queue.offer(entry);
+        if (closed) {
+            // raced with close(); drain again so the entry is not left behind
+            flush();
+        }
+    }
+
+    /**
+     * History of one class, newest first, including entries still waiting in the
+     * queue. Entries that went to the fallback file are not included.
+     */
+    public List<AuditEntry> history(String company, String clazz, int limit) {
+        List<AuditEntry> pending = new ArrayList<>();
+        String classKey = key(company, clazz);
+        for (AuditEntry e : queue) {
+            if (key(e.company(), e.clazz()).equals(classKey)) pending.add(e);
+        }
+        List<AuditEntry> result = new ArrayList<>(pending);
+        result.addAll(repository.findByClass(company, clazz, limit));
+        result.sort(Comparator.comparing(AuditEntry::changedAt).reversed());
+        return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+    }
+
+    @Scheduled(fixedDelayString = "${directory.audit.flush-interval:PT1S}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            boolean databaseUp = true;
+            boolean persistedAny = false;
+            List<AuditEntry> batch;
+            while (!(batch = drain()).isEmpty()) {
+                long start = System.nanoTime();
+                if (databaseUp) {
+                    try {
+                        repository.insert(batch);
+                        persisted.increment(batch.size());
+                        persistedAny = true;
+                    } catch (RuntimeException e) {
+                        // don't wait for another timeout per batch, the rest of this round goes to the file
+                        log.warn("Audit batch insert failed, writing {} entries to {}: {}",
+                                batch.size(), fallbackFile, e.getMessage());
+                        databaseUp = false;
+                    }
+                }
+                if (!databaseUp) {
+                    appendToFile(batch);
+                    fallback.increment(batch.size());
+                }
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            // only when the database just took a batch (or at startup), so an outage costs no extra timeouts
+            if (databaseUp && (persistedAny || replayOnNextFlush)) {
+                replayOnNextFlush = false;
+                replayFallbackFile();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Inserts the entries of the fallback file. What cannot be inserted stays in
+     * the replay file, which is picked up again before the fallback file next time.
+     */
+    private void replayFallbackFile() {
+        fileLock.lock();
+        try {
+            if (!Files.exists(replayFile)) {
+                if (!Files.exists(fallbackFile)) return;
+                Files.move(fallbackFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            log.warn("Audit fallback file {} could not be moved for replay: {}", fallbackFile, e.getMessage());
+            return;
+        } finally {
+            fileLock.unlock();
+        }
+
+        List<AuditEntry> entries = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(replayFile, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) continue;
+                try {
+                    entries.add(objectMapper.readValue(line, AuditEntry.class));
+                } catch (IOException e) {
+                    log.error("Unreadable audit fallback entry skipped: {}", line, e);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Audit replay file {} could not be read: {}", replayFile, e.getMessage());
+            return;
+        }
+
+        int done = 0;
+        try {
+            while (done < entries.size()) {
+                int end = Math.min(done + batchSize, entries.size());
+                repository.insert(entries.subList(done, end));
+                done = end;
+            }
+            Files.delete(replayFile);
+            log.info("Replayed {} audit entries from {}", entries.size(), fallbackFile);
+        } catch (RuntimeException | IOException e) {
+            log.warn("Audit replay stopped after {} of {} entries: {}", done, entries.size(), e.getMessage());
+            if (done > 0) {
+                keepForReplay(entries.subList(done, entries.size()));
+            }
+        }
+        replayed.increment(done);
+    }
+
+    private void keepForReplay(List<AuditEntry> entries) {
+        try (BufferedWriter out = Files.newBufferedWriter(replayFile, StandardCharsets.UTF_8,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (AuditEntry e : entries) {
+                out.write(objectMapper.writeValueAsString(e));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            log.error("Audit replay file {} could not be rewritten; its first entries will be inserted again",
+                    replayFile, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        flush();
+    }
+
+    private List<AuditEntry> drain() {
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        AuditEntry e;
+        while (batch.size() < batchSize && (e = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(e);
+        }
+        return batch;
+    }
+
+    private void appendToFile(List<AuditEntry> entries) {
+        fileLock.lock();
+        try (BufferedWriter out = Files.newBufferedWriter(fallbackFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (AuditEntry e : entries) {
+                out.write(objectMapper.writeValueAsString(e));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            // last resort, so the change is at least in the application log
+            for (AuditEntry entry : entries) {
+                log.error("Audit entry could not be written to {}: {}", fallbackFile, entry, e);
+            }
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    private static String currentActor() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            return auth.getName();
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            // set by the container or a front-end proxy doing Windows / SSO authentication
+            if (request.getRemoteUser() != null) return request.getRemoteUser();
+            return "anonymous@" + request.getRemoteAddr();
+        }
+        return "system";
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.backend.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.backend.model.DirectorEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Server-sent event feed of director changes behind /api/users/changes, so the
+ * UI can patch the rows it shows instead of reloading whole lists after every
+ * edit. {@link UserService} publishes one {@link DirectorEvent} per class it
+ * wrote, once committed; an edit made outside this application, seen by the
+ * scheduled snapshot refresh, is published as {@code resync} (reload
+ * everything), as there is no delta for it.
+ *
+ * Publishing never waits for a client. Each event is serialised once, numbered
+ * and handed to every subscriber's own bounded queue, which a task on the
+ * feed's own {@code sender-threads} pool drains into the connection, so slow
+ * clients never hold threads the rest of the application needs. A subscriber
+ * whose queue is full is disconnected rather than slowing anybody down.
+ *
+ * Events never cross instances: a client only hears about writes made through
+ * the instance it is connected to. Behind a load balancer, changes made through
+ * another instance reach it only as the {@code resync} of that instance's
+ * snapshot refresh, i.e. up to a refresh interval late.
+ *
+ * Event ids are {@code <epoch>-<sequence>}. A client that reconnects with
+ * Last-Event-ID (EventSource does so by itself) or {@code ?since=} gets the
+ * events it missed from the last {@code history-size} ones, or {@code resync}
+ * if they are no longer all there or the id is from before a restart. A new
+ * client gets a {@code ready} event carrying the current id.
+ *
+ * Meters: {@code directory.changes.subscribers} gauge, {@code directory.changes.events}
+ * and {@code directory.changes.overflows} counters.
+ */
+@Service
+public class ChangeFeedService {
+
+    public static final String READY = "ready";
+    public static final String RESYNC = "resync";
+
+    // at most one drain task per subscriber is queued at any time
+    private static final int SENDER_QUEUE = 10_000;
+
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    private final int historySize;
+    private final int clientBuffer;
+    private final long emitterTimeoutMillis;
+
+    // ids from an earlier run of the application cannot be resumed from
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock, as is sequence: numbering, history and fan-out happen in one step
+    private final ArrayDeque<Sent> history = new ArrayDeque<>();
+    private long sequence;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final Counter events;
+    private final Counter overflows;
+
+    public ChangeFeedService(ObjectMapper objectMapper,
+                             MeterRegistry registry,
+                             @Value("${directory.changes.sender-threads:4}") int senderThreads,
+                             @Value("${directory.changes.history-size:1000}") int historySize,
+                             @Value("${directory.changes.client-buffer:256}") int clientBuffer,
+                             @Value("${directory.changes.emitter-timeout:PT30M}") Duration emitterTimeout) {
+        this.objectMapper = objectMapper;
+        this.executor = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(SENDER_QUEUE), new CustomizableThreadFactory("change-feed-"));
+        this.executor.allowCoreThreadTimeOut(true);
+        this.historySize = historySize;
+        this.clientBuffer = clientBuffer;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+
+        Gauge.builder("directory.changes.subscribers", subscribers, Set::size).register(registry);
+        this.events = registry.counter("directory.changes.events");
+        this.overflows = registry.counter("directory.changes.overflows");
+    }
+
+    /** {@code lastEventId} is the id of the last event the client saw, null for a new client. */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        lock.lock();
+        try {
+            if (lastEventId == null || lastEventId.isBlank()) {
+                subscriber.offer(new Sent(sequence, READY, "{}"));
+            } else {
+                List<Sent> missed = missedSince(lastEventId);
+                if (missed == null || missed.size() >= clientBuffer) {
+                    subscriber.offer(new Sent(sequence, RESYNC, "{}"));
+                } else {
+                    missed.forEach(subscriber::offer);
+                }
+            }
+            if (!subscriber.closed) subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        return emitter;
+    }
+
+    public void publish(DirectorEvent event) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        append(event.type(), json);
+    }
+
+    /** Tells every client to reload, for changes that have no delta. */
+    public void resync() {
+        append(RESYNC, "{}");
+    }
+
+    private void append(String name, String json) {
+        lock.lock();
+        try {
+            Sent sent = new Sent(++sequence, name, json);
+            history.addLast(sent);
+            if (history.size() > historySize) history.removeFirst();
+            for (Subscriber s : subscribers) s.offer(sent);
+        } finally {
+            lock.unlock();
+        }
+        events.increment();
+    }
+
+    /** Events after {@code lastEventId}, or null if they cannot all be replayed. Called under lock. */
+    private List<Sent> missedSince(String lastEventId) {
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash < 0 || !lastEventId.substring(0, dash).equals(epoch)) return null;
+        long after;
+        try {
+            after = Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (after > sequence) return null;
+        if (after == sequence) return List.of();
+        Sent oldest = history.peekFirst();
+        if (oldest == null || oldest.seq() > after + 1) return null;
+        return history.stream().filter(s -> s.seq() > after).toList();
+    }
+
+    /** Comment lines keep idle connections open through proxies and find dead ones. */
+    @Scheduled(fixedDelayString = "${directory.changes.heartbeat-interval:PT20S}")
+    public void heartbeat() {
+        for (Subscriber s : subscribers) s.offer(SseEmitter.event().comment("heartbeat"));
+    }
+
+    /** Before the graceful shutdown, which would otherwise wait for these never-ending requests. */
+    @EventListener(ContextClosedEvent.class)
+    public void close() {
+        for (Subscriber s : subscribers) s.close();
+        executor.shutdown();
+    }
+
+    private String id(long seq) {
+        return epoch + "-" + seq;
+    }
+
+    private record Sent(long seq, String name, String json) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(clientBuffer);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Sent sent) {
+            offer(SseEmitter.event().id(id(sent.seq())).name(sent.name()).data(sent.json()));
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (!queue.offer(event)) {
+                // the client reconnects on its own and resumes from the history
+                overflows.increment();
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) return;
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                close();
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // connection gone or emitter already completed
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // an offer may have come in after the last poll but before draining was reset
+            if (!queue.isEmpty() && !closed) scheduleDrain();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+            emitter.complete();
+        }
+    }
+}
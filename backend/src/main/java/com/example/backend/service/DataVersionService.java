@@ -0,0 +1,57 @@
+package com.example.backend.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Version counters for the data behind the GET endpoints, used to build ETags.
+ *
+ * The directory counter moves after every committed write and whenever a
+ * refresh finds that the tables were edited from outside; the NT account
+ * counter moves when a reload of the suggest index finds different ADSUSERS
+ * rows, so it only describes the endpoints served from that index. The boot
+ * time is part of the tag so that counters restarting at 1 after a redeploy
+ * never match a tag handed out by the previous instance.
+ *
+ * Where SQL Server change tracking is enabled (directory.change-tracking.enabled),
+ * the last polled CHANGE_TRACKING_CURRENT_VERSION() of the directory databases is
+ * part of the tag too, so any out-of-band edit moves it, including one that
+ * changes no director row. Without change tracking only the refreshes can notice
+ * such edits, and only when they change what the endpoints return.
+ */
+@Service
+public class DataVersionService {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong directory = new AtomicLong(1);
+    private final AtomicLong ntAccounts = new AtomicLong(1);
+    private volatile String changeTracking = "0";
+
+    public void directoryChanged() {
+        directory.incrementAndGet();
+    }
+
+    public void ntAccountsChanged() {
+        ntAccounts.incrementAndGet();
+    }
+
+    /** Called once the data of that change tracking state is visible to the endpoints. */
+    public void changeTrackingVersions(List<Long> current) {
+        changeTracking = current.stream().map(String::valueOf).collect(Collectors.joining("."));
+    }
+
+    public long directoryVersion() {
+        return directory.get();
+    }
+
+    /**
+     * Weak, because the same version is sent gzip-compressed or not; Tomcat also
+     * refuses to compress a response carrying a strong ETag.
+     */
+    public String etag() {
+        return "W/\"" + epoch + "-" + directory.get() + "-" + ntAccounts.get() + "-" + changeTracking + "\"";
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.CRC32;
+
+import com.example.backend.model.Director;
+import com.example.backend.model.DirectorSearch;
+
+/**
+ * Opaque /search cursor: the full sort key (Company, BU, Class, NT account) of the
+ * last row of a page, base64url encoded, with NULL columns marked as such. It
+ * also carries a checksum of the sort, direction and filters of the query that
+ * produced it: a key is only a position within that order, so a cursor replayed
+ * with other parameters is refused instead of silently skipping rows.
+ */
+public final class DirectorCursor {
+
+    private static final char SEPARATOR = '\u0000';
+    // each column is NULL_MARK, or VALUE_MARK followed by its value
+    private static final char NULL_MARK = 'n';
+    private static final char VALUE_MARK = 'v';
+
+    private DirectorCursor() {
+    }
+
+    public static String encode(DirectorSearch query, Director last) {
+        String raw = Long.toHexString(checksum(query)) + SEPARATOR
+                + column(last.company()) + SEPARATOR
+                + column(last.businessUnit()) + SEPARATOR
+                + column(last.clazz()) + SEPARATOR
+                + column(last.ntAccount());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns null for a missing cursor, i.e. the first page. {@code query} is the
+     * request the cursor came with; its {@code after} is ignored.
+     */
+    public static Director decode(String cursor, DirectorSearch query) {
+        if (cursor == null || cursor.isEmpty()) return null;
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor.");
+        }
+        String[] parts = raw.split(String.valueOf(SEPARATOR), -1);
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Malformed cursor.");
+        }
+        if (!parts[0].equals(Long.toHexString(checksum(query)))) {
+            throw new IllegalArgumentException(
+                    "The cursor belongs to a search with a different sort, direction or filters.");
+        }
+        return new Director(value(parts[1]), value(parts[2]), value(parts[3]), "director", value(parts[4]), null);
+    }
+
+    private static long checksum(DirectorSearch query) {
+        CRC32 crc = new CRC32();
+        for (Object part : new Object[] {query.sort(), query.descending(), query.company(), query.businessUnit(),
+                query.ntAccountContains(), query.classPrefix()}) {
+            crc.update(column(part == null ? null : part.toString()).getBytes(StandardCharsets.UTF_8));
+            crc.update(SEPARATOR);
+        }
+        return crc.getValue();
+    }
+
+    private static String column(String value) {
+        return value == null ? String.valueOf(NULL_MARK) : VALUE_MARK + value;
+    }
+
+    private static String value(String column) {
+        if (column.equals(String.valueOf(NULL_MARK))) return null;
+        if (column.isEmpty() || column.charAt(0) != VALUE_MARK) {
+            throw new IllegalArgumentException("Malformed cursor.");
+        }
+        return column.substring(1);
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.backend.model.BusinessUnitRef;
+import com.example.backend.model.Director;
+import com.example.backend.repository.UserRepository;
+
+/**
+ * Holds the director rows in memory so the read endpoints do not have to re-run
+ * the DirectorProjection queries on every call. The smaller company / class
+ * lookups are cached per key by {@link LookupCacheService}.
+ *
+ * The snapshot is immutable and replaced as a whole, either after a write in
+ * {@link UserService} or on the scheduled refresh. The DirectorProjection table
+ * it is read from is kept current by the write paths, which re-derive the
+ * (Company, Class) they touch. Edits made outside this application reach it
+ * through {@link UserRepository#mergeDirectorProjection()}, which is run when
+ * change tracking reports a change to the CorporateQuote tables (BUxClass,
+ * Groups) and, with directory.projection.repair-on-startup, once at startup;
+ * it is never run on the timer.
+ */
+@Service
+public class DirectorSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectorSnapshotService.class);
+
+    private final UserRepository repository;
+    private final DataVersionService versions;
+    private final ChangeFeedService changes;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    @Value("${directory.change-tracking.enabled:false}")
+    private boolean changeTrackingEnabled;
+
+    @Value("${directory.projection.repair-on-startup:false}")
+    private boolean repairOnStartup;
+
+    private volatile Snapshot snapshot;
+    private volatile List<Long> changeTrackingVersions;
+
+    public DirectorSnapshotService(UserRepository repository, DataVersionService versions, ChangeFeedService changes) {
+        this.repository = repository;
+        this.versions = versions;
+        this.changes = changes;
+    }
+
+    public Snapshot current() {
+        Snapshot s = snapshot;
+        return s != null ? s : refresh();
+    }
+
+    public Snapshot refresh() {
+        // a lock rather than synchronized: a virtual thread blocked on JDBC inside
+        // a synchronized block would pin its carrier thread
+        refreshLock.lock();
+        try {
+            Snapshot previous = snapshot;
+            Snapshot s = new Snapshot(repository.getAllDirectors());
+            snapshot = s;
+            // bump only once the new data is visible, so a fresh ETag never labels old data
+            if (previous != null && !s.sameContentAs(previous)) {
+                versions.directoryChanged();
+            }
+            return s;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Reloads after a committed write. A failed reload drops the snapshot so the
+     * next read loads it again instead of serving data older than the write.
+     */
+    public void refreshAfterWrite() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            snapshot = null;
+            log.warn("Director snapshot refresh after write failed: {}", e.getMessage());
+        }
+        versions.directoryChanged();
+    }
+
+    /**
+     * Cheap poll of SQL Server change tracking on the directory databases. Only
+     * useful where change tracking is enabled on them, hence off by default. A
+     * moved CorporateQuote version means a class or group may map to other BUs
+     * now, so the projection is merged; a moved PBOAssetMgmt version is usually
+     * this application's own write, already in the projection, so only the
+     * snapshot is reloaded. Either way the versions become part of the ETag.
+     */
+    @Scheduled(fixedDelayString = "${directory.change-tracking.poll-interval:PT30S}")
+    public void pollChangeTracking() {
+        if (!changeTrackingEnabled) return;
+        try {
+            List<Long> current = repository.getChangeTrackingVersions();
+            List<Long> previous = changeTrackingVersions;
+            if (previous != null && !previous.equals(current)) {
+                boolean corporateQuoteChanged = !previous.get(1).equals(current.get(1));
+                resync(corporateQuoteChanged);
+            }
+            // only once resynced, so the new tag never labels old data; a failed resync is retried next poll
+            changeTrackingVersions = current;
+            versions.changeTrackingVersions(current);
+        } catch (RuntimeException e) {
+            log.warn("Change tracking poll failed: {}", e.getMessage());
+        }
+    }
+
+    /** One-off repair of a projection that drifted while nothing was tracking changes. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void repairProjectionOnStartup() {
+        if (!repairOnStartup) return;
+        try {
+            resync(true);
+        } catch (RuntimeException e) {
+            log.warn("Director projection repair failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${directory.snapshot.refresh-interval:PT5M}",
+               initialDelayString = "${directory.snapshot.initial-delay:PT0S}")
+    public void scheduledRefresh() {
+        try {
+            resync(false);
+        } catch (RuntimeException e) {
+            // keep serving the previous snapshot, the next tick will retry
+            log.warn("Director snapshot refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private void resync(boolean mergeProjection) {
+        if (mergeProjection) {
+            try {
+                repository.mergeDirectorProjection();
+            } catch (RuntimeException e) {
+                // the projection is still kept current by this application's own writes
+                log.warn("Director projection merge failed: {}", e.getMessage());
+            }
+        }
+        Snapshot previous = snapshot;
+        Snapshot s = refresh();
+        if (previous != null && !s.sameContentAs(previous)) {
+            // edited outside this application: there is no delta to send, clients reload
+            changes.resync();
+        }
+    }
+
+    static String key(String... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : parts) {
+            sb.append(canonical(part)).append('\u0000');
+        }
+        return sb.toString();
+    }
+
+    /** SQL Server compares these columns case-insensitively and ignores trailing blanks. */
+    static String canonical(String value) {
+        return value == null ? "" : value.stripTrailing().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * One consistent, read-only view of the directory, indexed the same way the
+     * endpoints query it.
+     */
+    public static final class Snapshot {
+
+        private final List<Director> allDirectors;
+        private final Map<String, List<Director>> directorsByCompany = new HashMap<>();
+        private final Map<String, List<Director>> directorsByCompanyBuClass = new HashMap<>();
+        private final Map<String, List<Director>> directorsByCompanyClass = new HashMap<>();
+        private final Map<String, List<BusinessUnitRef>> busByCompanyClass = new HashMap<>();
+
+        Snapshot(List<Director> directors) {
+            this.allDirectors = List.copyOf(directors);
+
+            Map<String, Set<String>> busSeen = new HashMap<>();
+            for (Director d : directors) {
+                add(directorsByCompany, key(d.company()), d);
+                add(directorsByCompanyBuClass, key(d.company(), d.businessUnit(), d.clazz()), d);
+
+                String companyClass = key(d.company(), d.clazz());
+                add(directorsByCompanyClass, companyClass, d);
+                if (busSeen.computeIfAbsent(companyClass, k -> new HashSet<>()).add(key(d.businessUnit()))) {
+                    add(busByCompanyClass, companyClass, new BusinessUnitRef(d.businessUnit()));
+                }
+            }
+
+            freeze(directorsByCompany);
+            freeze(directorsByCompanyBuClass);
+            freeze(directorsByCompanyClass);
+            freeze(busByCompanyClass);
+        }
+
+        /** Relies on {@link UserRepository#getAllDirectors()} returning rows in a fixed order. */
+        boolean sameContentAs(Snapshot other) {
+            return allDirectors.equals(other.allDirectors);
+        }
+
+        public List<Director> getAllDirectors() {
+            return allDirectors;
+        }
+
+        public List<Director> getListForCompanyOnly(String company) {
+            return directorsByCompany.getOrDefault(key(company), List.of());
+        }
+
+        public List<Director> getDirectorBasedOnParam(String company, String businessUnit, String clazz) {
+            return directorsByCompanyBuClass.getOrDefault(key(company, businessUnit, clazz), List.of());
+        }
+
+        /** All director rows of one class, across the BUs it resolves to. */
+        public List<Director> getDirectorsForClass(String company, String clazz) {
+            return directorsByCompanyClass.getOrDefault(key(company, clazz), List.of());
+        }
+
+        public List<BusinessUnitRef> getBUsForClass(String company, String clazz) {
+            return busByCompanyClass.getOrDefault(key(company, clazz), List.of());
+        }
+
+        private static <T> void add(Map<String, List<T>> index, String key, T row) {
+            index.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+        }
+
+        private static <T> void freeze(Map<String, List<T>> index) {
+            index.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        }
+    }
+}
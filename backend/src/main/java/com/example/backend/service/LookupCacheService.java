@@ -0,0 +1,134 @@
+package com.example.backend.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import com.example.backend.config.LookupCacheProperties;
+import com.example.backend.model.ClassRef;
+import com.example.backend.model.CompanyRef;
+import com.example.backend.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import static com.example.backend.service.DirectorSnapshotService.canonical;
+
+/**
+ * Caffeine caches for the small lookups the UI repeats on every interaction:
+ * director companies, director classes and all classes of a company, and the
+ * business unit of a class. Each has its own TTL and size bound
+ * ({@link LookupCacheProperties}).
+ *
+ * An entry older than its TTL is reloaded in the background on its next read,
+ * which is still answered from the cache; the API ETag only moves, and the
+ * change feed only asks clients to resync, if the reloaded value differs.
+ * Entries do not expire: clients holding an ETag are answered 304 without
+ * reading the cache, so an entry dropped for being unread would come back
+ * through a plain load with nothing to compare against, and an out-of-band edit
+ * would never move the ETag. Only the size bound evicts, and each default is
+ * set above the number of keys its lookup has. Director writes invalidate the entries they affect
+ * through {@link #directorsChanged} and {@link #classDeleted}.
+ *
+ * Meters: the usual {@code cache.gets}, {@code cache.evictions},
+ * {@code cache.size} and {@code cache.load.duration}, tagged
+ * {@code cache=directory.<lookup>}.
+ */
+@Service
+public class LookupCacheService {
+
+    private static final String ALL = "";
+
+    private final DataVersionService versions;
+    private final ChangeFeedService changeFeed;
+    private final Executor executor;
+    private final MeterRegistry registry;
+
+    private final LoadingCache<String, List<CompanyRef>> companies;
+    private final LoadingCache<String, List<ClassRef>> directorClasses;
+    private final LoadingCache<String, List<ClassRef>> allClasses;
+    private final LoadingCache<ClassKey, Optional<String>> businessUnits;
+
+    public LookupCacheService(UserRepository repository,
+                              DataVersionService versions,
+                              ChangeFeedService changeFeed,
+                              LookupCacheProperties properties,
+                              @Qualifier("applicationTaskExecutor") Executor executor,
+                              MeterRegistry registry) {
+        this.versions = versions;
+        this.changeFeed = changeFeed;
+        this.executor = executor;
+        this.registry = registry;
+        this.companies = build("companies", properties.companies(), all -> repository.getCompanies());
+        this.directorClasses = build("directorClasses", properties.directorClasses(), repository::getClassesForCompany);
+        this.allClasses = build("allClasses", properties.allClasses(), repository::getAllClassesForCompany);
+        this.businessUnits = build("businessUnit", properties.businessUnit(),
+                k -> Optional.ofNullable(repository.getBusinessUnitForClass(k.company(), k.clazz())));
+    }
+
+    public List<CompanyRef> getCompanies() {
+        return companies.get(ALL);
+    }
+
+    public List<ClassRef> getClassesForCompany(String company) {
+        return directorClasses.get(canonical(company));
+    }
+
+    public List<ClassRef> getAllClassesForCompany(String company) {
+        return allClasses.get(canonical(company));
+    }
+
+    public String getBusinessUnitForClass(String company, String clazz) {
+        return businessUnits.get(new ClassKey(canonical(company), canonical(clazz))).orElse(null);
+    }
+
+    /** After a committed write that added or removed director rows of {@code company}. */
+    public void directorsChanged(String company) {
+        companies.invalidate(ALL);
+        directorClasses.invalidate(canonical(company));
+    }
+
+    /** After a committed delete of the BUxClass rows of {@code clazz}. */
+    public void classDeleted(String company, String clazz) {
+        allClasses.invalidate(canonical(company));
+        businessUnits.invalidate(new ClassKey(canonical(company), canonical(clazz)));
+    }
+
+    private <K, V> LoadingCache<K, V> build(String name, LookupCacheProperties.Lookup spec, Function<K, V> query) {
+        LoadingCache<K, V> cache = Caffeine.newBuilder()
+                .maximumSize(spec.maximumSize())
+                .refreshAfterWrite(spec.ttl())
+                // reloads run JDBC, keep them off the common fork-join pool
+                .executor(executor)
+                .recordStats()
+                .build(new CacheLoader<K, V>() {
+                    @Override
+                    public V load(K key) {
+                        return query.apply(key);
+                    }
+
+                    @Override
+                    public V reload(K key, V oldValue) {
+                        V value = query.apply(key);
+                        if (!value.equals(oldValue)) {
+                            versions.directoryChanged();
+                            // our own writes invalidate instead, so this was an edit made elsewhere
+                            changeFeed.resync();
+                        }
+                        return value;
+                    }
+                });
+        CaffeineCacheMetrics.monitor(registry, cache, "directory." + name);
+        return cache;
+    }
+
+    private record ClassKey(String company, String clazz) {
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.backend.model.AdUser;
+import com.example.backend.repository.UserRepository;
+
+/**
+ * Keeps one prefix index of DATAWHSE..ADSUSERS per region so the NT account
+ * picker can ask for a handful of matches per keystroke instead of downloading
+ * the whole region.
+ */
+@Service
+public class NtAccountIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(NtAccountIndexService.class);
+
+    public static final int MAX_LIMIT = 100;
+
+    private final UserRepository repository;
+    private final DataVersionService versions;
+    private final Map<String, PrefixIndex> indexes = new ConcurrentHashMap<>();
+    // first load of a region still in progress, which concurrent first keystrokes wait for
+    private final Map<String, CompletableFuture<PrefixIndex>> firstLoads = new ConcurrentHashMap<>();
+
+    public NtAccountIndexService(UserRepository repository, DataVersionService versions) {
+        this.repository = repository;
+        this.versions = versions;
+    }
+
+    public List<AdUser> suggest(String company, String query, int limit) {
+        PrefixIndex index = indexes.get(company);
+        if (index == null) {
+            index = firstLoad(company);
+        }
+        return index.find(query, Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+    /** One ADSUSERS scan per region however many requests find its index missing. */
+    private PrefixIndex firstLoad(String company) {
+        CompletableFuture<PrefixIndex> load = new CompletableFuture<>();
+        CompletableFuture<PrefixIndex> running = firstLoads.putIfAbsent(company, load);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+        }
+        try {
+            PrefixIndex index = indexes.get(company);
+            load.complete(index != null ? index : refresh(company));
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            firstLoads.remove(company, load);
+        }
+        return load.join();
+    }
+
+    public PrefixIndex refresh(String company) {
+        PrefixIndex index = new PrefixIndex(repository.getDisplayNameAndNTAccounts(company));
+        PrefixIndex previous = indexes.put(company, index);
+        if (previous != null && !Arrays.equals(previous.users, index.users)) {
+            versions.ntAccountsChanged();
+        }
+        return index;
+    }
+
+    @Scheduled(fixedDelayString = "${directory.ntaccounts.refresh-interval:PT30M}",
+               initialDelayString = "${directory.ntaccounts.initial-delay:PT0S}")
+    public void scheduledRefresh() {
+        for (String company : UserRepository.REGION_COMPANIES) {
+            try {
+                refresh(company);
+            } catch (RuntimeException e) {
+                // keep the previous index for this region, the next tick will retry
+                log.warn("NT account index refresh failed for {}: {}", company, e.getMessage());
+            }
+        }
+    }
+
+    static String normalize(String s) {
+        return s == null ? "" : s.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Sorted array of lower-cased search keys, each pointing back at its user.
+     * Every user is reachable by display name, by each word of the display name
+     * and by the NT account with and without its region prefix.
+     */
+    static final class PrefixIndex {
+
+        private final AdUser[] users;
+        private final String[] keys;
+        private final int[] owners;
+
+        PrefixIndex(List<AdUser> source) {
+            this.users = source.toArray(new AdUser[0]);
+
+            List<String> keyList = new ArrayList<>(users.length * 3);
+            List<Integer> ownerList = new ArrayList<>(users.length * 3);
+            for (int i = 0; i < users.length; i++) {
+                for (String key : keysFor(users[i])) {
+                    keyList.add(key);
+                    ownerList.add(i);
+                }
+            }
+
+            Integer[] order = new Integer[keyList.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, Comparator.comparing(keyList::get));
+
+            this.keys = new String[order.length];
+            this.owners = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                keys[i] = keyList.get(order[i]);
+                owners[i] = ownerList.get(order[i]);
+            }
+        }
+
+        List<AdUser> find(String query, int limit) {
+            String q = normalize(query);
+            List<AdUser> result = new ArrayList<>(limit);
+            if (q.isEmpty()) {
+                // users arrive ordered by DisplayName, so the head of the list is the answer
+                for (int i = 0; i < users.length && result.size() < limit; i++) result.add(users[i]);
+                return result;
+            }
+
+            int[] taken = new int[limit];
+            for (int i = lowerBound(q); i < keys.length && keys[i].startsWith(q) && result.size() < limit; i++) {
+                int owner = owners[i];
+                if (!contains(taken, result.size(), owner)) {
+                    taken[result.size()] = owner;
+                    result.add(users[owner]);
+                }
+            }
+            return result;
+        }
+
+        private static boolean contains(int[] values, int size, int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) return true;
+            }
+            return false;
+        }
+
+        private int lowerBound(String q) {
+            int lo = 0;
+            int hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(q) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private static List<String> keysFor(AdUser user) {
+            List<String> out = new ArrayList<>(4);
+            String name = normalize(user.label());
+            if (!name.isEmpty()) {
+                out.add(name);
+                for (String word : name.split("[\\s,]+")) {
+                    if (!word.isEmpty() && !name.startsWith(word)) out.add(word);
+                }
+            }
+            String account = normalize(user.value());
+            if (!account.isEmpty()) {
+                out.add(account);
+                int slash = account.indexOf('\\');
+                if (slash >= 0 && slash < account.length() - 1) out.add(account.substring(slash + 1));
+            }
+            return out;
+        }
+    }
+}
@@ -1,70 +1,389 @@
 package com.example.backend.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.backend.model.AdUser;
+import com.example.backend.model.AuditEntry;
+import com.example.backend.model.Bootstrap;
+import com.example.backend.model.BusinessUnitRef;
+import com.example.backend.model.ClassAssignment;
+import com.example.backend.model.ClassRef;
+import com.example.backend.model.CompanyRef;
+import com.example.backend.model.Director;
+import com.example.backend.model.DirectorAssignment;
+import com.example.backend.model.DirectorChange;
+import com.example.backend.model.DirectorEvent;
+import com.example.backend.model.DirectorPage;
+import com.example.backend.model.DirectorSearch;
+import com.example.backend.model.DirectorUpdate;
+import com.example.backend.model.GroupRef;
 import com.example.backend.repository.UserRepository;
 
+import static com.example.backend.service.DirectorSnapshotService.key;
+
 @Service
 public class UserService {
 
     private final UserRepository repository;
+    private final DirectorSnapshotService snapshots;
+    private final NtAccountIndexService ntAccountIndex;
+    private final TransactionTemplate transactions;
+    private final Executor executor;
+    private final AuditLogService auditLog;
+    private final LookupCacheService lookups;
+    private final ChangeFeedService changeFeed;
 
-    public UserService(UserRepository repository) {
+    public UserService(UserRepository repository,
+                       DirectorSnapshotService snapshots,
+                       LookupCacheService lookups,
+                       NtAccountIndexService ntAccountIndex,
+                       TransactionTemplate transactions,
+                       @Qualifier("applicationTaskExecutor") Executor executor,
+                       AuditLogService auditLog,
+                       ChangeFeedService changeFeed) {
         this.repository = repository;
+        this.snapshots = snapshots;
+        this.lookups = lookups;
+        this.ntAccountIndex = ntAccountIndex;
+        this.transactions = transactions;
+        this.executor = executor;
+        this.auditLog = auditLog;
+        this.changeFeed = changeFeed;
     }
 
-    public List<Map<String, Object>> getCompanies() {
-        return repository.getCompanies();
+    public List<CompanyRef> getCompanies() {
+        return lookups.getCompanies();
     }
 
-    public List<Map<String, Object>> getAllClassesForCompany(String company) {
-        return repository.getAllClassesForCompany(company);
+    public List<ClassRef> getAllClassesForCompany(String company) {
+        return lookups.getAllClassesForCompany(company);
     }
 
     public String getBusinessUnitForClass(String company, String clazz) {
-        return repository.getBusinessUnitForClass(company, clazz);
+        return lookups.getBusinessUnitForClass(company, clazz);
+    }
+
+    /** Suggestions the NT account picker shows before anything is typed. */
+    public static final int BOOTSTRAP_NT_ACCOUNTS = 20;
+
+    /**
+     * Everything the UI's first page load needs for one company. Every part can
+     * have to go to the database on a cold or stale cache (lookup entries, the
+     * snapshot, a region's first NT account index load), so all of them run on the
+     * application task executor and a cold load costs the slowest query rather
+     * than the sum of them. With the executor saturated a part runs here instead.
+     */
+    public Bootstrap bootstrap(String company) {
+        requireKnownCompany(company);
+        CompletableFuture<List<AdUser>> ntAccounts = async(() -> suggestNTAccounts(company, "", BOOTSTRAP_NT_ACCOUNTS));
+        CompletableFuture<List<CompanyRef>> companies = async(this::getCompanies);
+        CompletableFuture<List<ClassRef>> allClasses = async(() -> getAllClassesForCompany(company));
+        CompletableFuture<List<ClassRef>> classes = async(() -> getClassesForBU(company));
+        CompletableFuture<List<Director>> directors = async(() -> getListForCompanyOnly(company));
+        try {
+            return new Bootstrap(companies.join(), allClasses.join(), classes.join(), directors.join(),
+                    ntAccounts.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
     }
 
-    public List<Map<String, Object>> getBUsForClass(String company, String clazz) {
-        return repository.getBUsForClass(company, clazz);
+    private <T> CompletableFuture<T> async(Supplier<T> part) {
+        try {
+            return CompletableFuture.supplyAsync(part, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(part.get());
+        }
     }
 
-    public List<Map<String, Object>> getClassesForBU(String company) {
-        return repository.getClassesForCompany(company);
+    public List<BusinessUnitRef> getBUsForClass(String company, String clazz) {
+        return snapshots.current().getBUsForClass(company, clazz);
     }
 
-    public List<Map<String, Object>> getDirectorBasedOnParam(String company, String businessUnit, String clazz) {
-        return repository.getDirectorBasedOnParam(company, businessUnit, clazz);
+    public List<ClassRef> getClassesForBU(String company) {
+        return lookups.getClassesForCompany(company);
     }
 
-    public List<Map<String, Object>> getAllDirectors() {
-        return repository.getAllDirectors();
+    public List<Director> getDirectorBasedOnParam(String company, String businessUnit, String clazz) {
+        return snapshots.current().getDirectorBasedOnParam(company, businessUnit, clazz);
     }
 
-    public List<Map<String, Object>> getListForCompanyOnly(String company) {
-        return repository.getListForCompanyOnly(company);
+    public List<Director> getAllDirectors() {
+        return snapshots.current().getAllDirectors();
+    }
+
+    public List<Director> getListForCompanyOnly(String company) {
+        return snapshots.current().getListForCompanyOnly(company);
+    }
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /** Unlike the other reads this goes to the database: only one page is materialised. */
+    public DirectorPage searchDirectors(DirectorSearch search) {
+        List<Director> rows = repository.searchDirectors(search);
+        if (rows.size() <= search.pageSize()) {
+            return new DirectorPage(rows, null);
+        }
+        List<Director> page = List.copyOf(rows.subList(0, search.pageSize()));
+        return new DirectorPage(page, DirectorCursor.encode(search, page.get(page.size() - 1)));
     }
 
-    public int updateNTAccount(String company, String businessUnit, String clazz, String newNTAccount) {
-        return repository.updateNTAccount(company, businessUnit, clazz, newNTAccount);
+    /**
+     * Sets the NT account if the director row is still at {@code expectedVersion}.
+     * When it is not, nothing is written and the result carries the rows as they
+     * are now, read from the database rather than the snapshot.
+     */
+    public DirectorUpdate updateNTAccount(String company, String businessUnit, String clazz, String newNTAccount,
+                                          String expectedVersion) {
+        List<DirectorChange> changes = repository.updateNTAccount(company, businessUnit, clazz, newNTAccount,
+                UserRepository.parseVersion(expectedVersion));
+        if (changes.isEmpty()) {
+            return new DirectorUpdate(0, repository.getDirectorBasedOnParam(company, businessUnit, clazz));
+        }
+        audit(AuditEntry.UPDATE_NT_ACCOUNT, company, clazz, changes);
+        snapshots.refreshAfterWrite();
+        publish(DirectorEvent.UPDATED, company, clazz);
+        return new DirectorUpdate(changes.size(), getDirectorBasedOnParam(company, businessUnit, clazz));
     }
 
-    public List<Map<String, Object>> getNTAccountsByCompany(String company) {
+    public List<AdUser> getNTAccountsByCompany(String company) {
         return repository.getDisplayNameAndNTAccounts(company);
     }
 
+    public List<AdUser> suggestNTAccounts(String company, String query, int limit) {
+        return ntAccountIndex.suggest(company, query, limit);
+    }
+
+    public void requireKnownCompany(String company) {
+        UserRepository.regionPrefix(company);
+    }
+
+    public void streamNTAccountsByCompany(String company, Consumer<AdUser> sink) {
+        repository.streamDisplayNameAndNTAccounts(company, sink);
+    }
+
     public int assignDirector(String company, String businessUnit, String clazz, String ntAccount) {
-        return repository.assignDirector(company, businessUnit, clazz, ntAccount);
+        int code = repository.assignDirector(company, businessUnit, clazz, ntAccount);
+        if (code == 1) {
+            auditLog.record(AuditEntry.ASSIGN_DIRECTOR, company, clazz, businessUnit, "director",
+                    null, UserRepository.withRegionPrefix(company, ntAccount));
+            lookups.directorsChanged(company);
+            snapshots.refreshAfterWrite();
+            publish(DirectorEvent.ASSIGNED, company, clazz);
+        }
+        return code;
+    }
+
+    /** Rows per bulk request: the transaction holds locks on every class in it. */
+    public static final int MAX_BULK_ROWS = 5000;
+
+    /** Bulk assign code of a row whose company is not one of {@link UserRepository#REGION_COMPANIES}. */
+    public static final int UNKNOWN_COMPANY = -2;
+
+    /** Bulk NT update count of a row whose version no longer matches its director. */
+    public static final int VERSION_CONFLICT = -1;
+
+    /**
+     * Validates every row against one read of BUxClass, Groups and the (locked)
+     * director rows of the request's classes, then inserts the accepted rows as one
+     * JDBC batch in the same transaction. Returns the {@link UserRepository#assignDirector}
+     * code per row, or {@link #UNKNOWN_COMPANY}; earlier rows of the same request
+     * count as existing directors for later ones.
+     */
+    public int[] bulkAssignDirectors(List<DirectorAssignment> rows) {
+        int[] codes = transactions.execute(status -> {
+            Set<String> classes = new HashSet<>();
+            for (ClassAssignment c : repository.getClassBusinessUnits()) {
+                classes.add(key(c.company(), c.clazz()));
+            }
+            Set<String> groups = new HashSet<>();
+            for (GroupRef g : repository.getGroups()) {
+                groups.add(key(g.company(), g.groupNTDesc()));
+            }
+            Map<String, Set<String>> directorBus = new HashMap<>();
+            for (ClassAssignment c : repository.getDirectorClassesForUpdate(distinctClasses(rows))) {
+                directorBus.computeIfAbsent(key(c.company(), c.clazz()), k -> new HashSet<>()).add(key(c.businessUnit()));
+            }
+
+            int[] result = new int[rows.size()];
+            List<DirectorAssignment> inserts = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                DirectorAssignment row = rows.get(i);
+                String classKey = key(row.company(), row.clazz());
+                if (!isRegionCompany(row.company())) {
+                    result[i] = UNKNOWN_COMPANY;
+                } else if (!classes.contains(classKey)) {
+                    result[i] = -1;
+                } else if (!groups.contains(key(row.company(), row.businessUnit()))) {
+                    result[i] = 0;
+                } else {
+                    Set<String> bus = directorBus.computeIfAbsent(classKey, k -> new HashSet<>());
+                    if (bus.contains(key(row.businessUnit()))) {
+                        result[i] = 3;
+                    } else if (!bus.isEmpty()) {
+                        result[i] = 2;
+                    } else {
+                        bus.add(key(row.businessUnit()));
+                        inserts.add(new DirectorAssignment(row.company(), row.businessUnit(), row.clazz(),
+                                UserRepository.withRegionPrefix(row.company(), row.ntAccount())));
+                        result[i] = 1;
+                    }
+                }
+            }
+            if (!inserts.isEmpty()) {
+                repository.insertDirectors(inserts);
+                repository.refreshDirectorProjection(distinctClasses(inserts));
+            }
+            return result;
+        });
+        for (int i = 0; i < codes.length; i++) {
+            if (codes[i] != 1) continue;
+            DirectorAssignment row = rows.get(i);
+            auditLog.record(AuditEntry.ASSIGN_DIRECTOR, row.company(), row.clazz(), row.businessUnit(), "director",
+                    null, UserRepository.withRegionPrefix(row.company(), row.ntAccount()));
+            lookups.directorsChanged(row.company());
+        }
+        if (Arrays.stream(codes).anyMatch(code -> code == 1)) {
+            snapshots.refreshAfterWrite();
+            List<DirectorAssignment> assigned = new ArrayList<>();
+            for (int i = 0; i < codes.length; i++) {
+                if (codes[i] == 1) assigned.add(rows.get(i));
+            }
+            publish(DirectorEvent.ASSIGNED, distinctClasses(assigned));
+        }
+        return codes;
+    }
+
+    /**
+     * Returns the number of rows updated for each entry, all applied in one
+     * transaction, or {@link #VERSION_CONFLICT} for a row whose director, under the
+     * row's BU, has been written since its version was read. Every row needs a
+     * version, like {@link #updateNTAccount}.
+     */
+    public int[] bulkUpdateNTAccounts(List<DirectorAssignment> rows) {
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                UserRepository.parseVersion(rows.get(i).version());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + i + ": " + e.getMessage());
+            }
+        }
+        List<Runnable> auditEntries = new ArrayList<>();
+        List<DirectorAssignment> changedClasses = new ArrayList<>();
+        int[] counts = transactions.execute(status -> {
+            // NT accounts of the requested classes before the batch, for the audit log; locked until commit
+            Map<String, Set<String>> current = new HashMap<>();
+            for (DirectorAssignment d : repository.getDirectorNtAccountsForUpdate(distinctClasses(rows))) {
+                current.computeIfAbsent(key(d.company(), d.clazz()), k -> new LinkedHashSet<>()).add(d.ntAccount());
+            }
+
+            int[] updated = repository.updateNTAccounts(rows);
+            List<Integer> missedAt = new ArrayList<>();
+            List<DirectorAssignment> changed = new ArrayList<>();
+            for (int i = 0; i < updated.length; i++) {
+                DirectorAssignment row = rows.get(i);
+                if (updated[i] == 0) {
+                    missedAt.add(i);
+                    continue;
+                }
+                changed.add(row);
+                Set<String> before = current.put(key(row.company(), row.clazz()), Set.of(row.ntAccount()));
+                for (String nt : before == null ? Set.<String>of() : before) {
+                    auditEntries.add(() -> auditLog.record(AuditEntry.UPDATE_NT_ACCOUNT, row.company(), row.clazz(),
+                            row.businessUnit(), "director", nt, row.ntAccount()));
+                }
+            }
+            // a miss is a conflict only if the director is there, under that BU, at another version
+            List<DirectorAssignment> missed = missedAt.stream().map(rows::get).toList();
+            for (int stale : repository.findStaleVersions(missed)) {
+                updated[missedAt.get(stale)] = VERSION_CONFLICT;
+            }
+            changedClasses.addAll(distinctClasses(changed));
+            repository.refreshDirectorProjection(changedClasses);
+            return updated;
+        });
+        // only once committed
+        auditEntries.forEach(Runnable::run);
+        if (Arrays.stream(counts).anyMatch(count -> count > 0)) {
+            snapshots.refreshAfterWrite();
+            publish(DirectorEvent.UPDATED, changedClasses);
+        }
+        return counts;
+    }
+
+    /** Whether {@link UserRepository#regionPrefix} knows the company, which is case-sensitive. */
+    private static boolean isRegionCompany(String company) {
+        return UserRepository.REGION_COMPANIES.contains(company);
+    }
+
+    /** One row per (Company, Class), compared the way SQL Server does. */
+    private static List<DirectorAssignment> distinctClasses(List<DirectorAssignment> rows) {
+        Map<String, DirectorAssignment> byClass = new LinkedHashMap<>();
+        for (DirectorAssignment row : rows) {
+            byClass.putIfAbsent(key(row.company(), row.clazz()), row);
+        }
+        return new ArrayList<>(byClass.values());
     }
 
     public int deleteClassForCompany(String clazz, String company) {
-        return repository.deleteClassByCompany(clazz, company);
+        List<DirectorChange> changes = repository.deleteClassByCompany(clazz, company);
+        audit(AuditEntry.DELETE_CLASS, company, clazz, changes);
+        if (!changes.isEmpty()) {
+            lookups.classDeleted(company, clazz);
+            snapshots.refreshAfterWrite();
+            publish(DirectorEvent.CLASS_DELETED, company, clazz);
+        }
+        return changes.size();
     }
 
     public int deleteRow(String clazz, String company) {
-        return repository.deleteRow(clazz, company);
+        List<DirectorChange> changes = repository.deleteRow(clazz, company);
+        audit(AuditEntry.DELETE_ROW, company, clazz, changes);
+        if (!changes.isEmpty()) {
+            lookups.directorsChanged(company);
+            snapshots.refreshAfterWrite();
+            publish(DirectorEvent.REMOVED, company, clazz);
+        }
+        return changes.size();
+    }
+
+    /** After the snapshot refresh, so the event carries the class's rows as committed. */
+    private void publish(String type, String company, String clazz) {
+        changeFeed.publish(new DirectorEvent(type, company, clazz,
+                snapshots.current().getDirectorsForClass(company, clazz)));
+    }
+
+    private void publish(String type, List<DirectorAssignment> classes) {
+        for (DirectorAssignment c : classes) publish(type, c.company(), c.clazz());
+    }
+
+    public List<AuditEntry> getAuditHistory(String company, String clazz, int limit) {
+        return auditLog.history(company, clazz, limit);
+    }
+
+    private void audit(String action, String company, String clazz, List<DirectorChange> changes) {
+        for (DirectorChange c : changes) {
+            auditLog.record(action, company, clazz, c.businessUnit(), c.role(), c.ntAccountBefore(), c.ntAccountAfter());
+        }
     }
 }
@@ -0,0 +1,59 @@
+-- Pre-joined copy of AO_UserAssociation x BUxClass x Groups for the director rows,
+-- so the read endpoints seek one local index instead of joining across two
+-- databases on GroupNTDesc text. One row per director and BU its class resolves
+-- to, i.e. exactly the rows the runtime join returned.
+--
+-- The backend keeps it current: every write path re-derives the rows of the
+-- (Company, Class) it touched in the same transaction. Edits made elsewhere are
+-- merged in (UserRepository.mergeDirectorProjection) when change tracking sees
+-- CorporateQuote move, or once at startup with
+-- directory.projection.repair-on-startup=true; the scheduled snapshot refresh
+-- only rereads the table, it never rebuilds it.
+--
+-- Only objects this application owns are created here. Indexes on the source
+-- tables (AO_UserAssociation, CorporateQuote.dbo.BUxClass and Groups) belong to
+-- their DBAs and are in backend/db/dba/source-indexes.sql.
+
+IF OBJECT_ID(N'PBOAssetMgmt.dbo.DirectorProjection', N'U') IS NULL
+CREATE TABLE PBOAssetMgmt.dbo.DirectorProjection (
+    Company      nvarchar(50)  NOT NULL,
+    Class        nvarchar(100) NOT NULL,
+    BusinessUnit nvarchar(255) NULL,
+    Role         nvarchar(50)  NOT NULL,
+    NT_Account   nvarchar(255) NULL,
+    -- NULL-free sort key for keyset paging on the NT account
+    NtKey AS ISNULL(NT_Account, N'') PERSISTED
+);
+GO
+
+IF NOT EXISTS (SELECT 1 FROM PBOAssetMgmt.sys.indexes
+               WHERE name = N'CX_DirectorProjection_Company_Class'
+                 AND object_id = OBJECT_ID(N'PBOAssetMgmt.dbo.DirectorProjection'))
+CREATE CLUSTERED INDEX CX_DirectorProjection_Company_Class
+    ON PBOAssetMgmt.dbo.DirectorProjection (Company, Class);
+GO
+
+IF NOT EXISTS (SELECT 1 FROM PBOAssetMgmt.sys.indexes
+               WHERE name = N'IX_DirectorProjection_BusinessUnit'
+                 AND object_id = OBJECT_ID(N'PBOAssetMgmt.dbo.DirectorProjection'))
+CREATE INDEX IX_DirectorProjection_BusinessUnit
+    ON PBOAssetMgmt.dbo.DirectorProjection (BusinessUnit, Company, Class)
+    INCLUDE (Role, NT_Account);
+GO
+
+IF NOT EXISTS (SELECT 1 FROM PBOAssetMgmt.sys.indexes
+               WHERE name = N'IX_DirectorProjection_NtKey'
+                 AND object_id = OBJECT_ID(N'PBOAssetMgmt.dbo.DirectorProjection'))
+CREATE INDEX IX_DirectorProjection_NtKey
+    ON PBOAssetMgmt.dbo.DirectorProjection (NtKey, Company, Class)
+    INCLUDE (BusinessUnit, Role, NT_Account);
+GO
+
+IF NOT EXISTS (SELECT 1 FROM PBOAssetMgmt.dbo.DirectorProjection)
+INSERT INTO PBOAssetMgmt.dbo.DirectorProjection (Company, Class, BusinessUnit, Role, NT_Account)
+SELECT DISTINCT a.Company, a.Class, g.GroupNTDesc, a.Role, a.NT_Account
+FROM PBOAssetMgmt.dbo.AO_UserAssociation a
+JOIN CorporateQuote.dbo.BUxClass b ON a.Class = b.Class AND a.Company = b.Company
+JOIN CorporateQuote.dbo.Groups g ON b.BU = g.GID
+WHERE a.Role = 'director';
+GO
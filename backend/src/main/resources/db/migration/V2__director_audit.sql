@@ -0,0 +1,24 @@
+-- Who changed which director assignment, and from what to what. Written in
+-- batches by the backend's AuditLogService, read back per class by /audit.
+
+IF OBJECT_ID(N'PBOAssetMgmt.dbo.DirectorAudit', N'U') IS NULL
+CREATE TABLE PBOAssetMgmt.dbo.DirectorAudit (
+    Id              bigint IDENTITY(1, 1) NOT NULL PRIMARY KEY,
+    ChangedAt       datetime2(3)  NOT NULL,   -- UTC
+    ChangedBy       nvarchar(255) NOT NULL,
+    Action          varchar(32)   NOT NULL,
+    Company         nvarchar(50)  NOT NULL,
+    Class           nvarchar(100) NOT NULL,
+    BusinessUnit    nvarchar(255) NULL,
+    Role            nvarchar(50)  NULL,
+    NtAccountBefore nvarchar(255) NULL,
+    NtAccountAfter  nvarchar(255) NULL
+);
+GO
+
+IF NOT EXISTS (SELECT 1 FROM PBOAssetMgmt.sys.indexes
+               WHERE name = N'IX_DirectorAudit_Company_Class_ChangedAt'
+                 AND object_id = OBJECT_ID(N'PBOAssetMgmt.dbo.DirectorAudit'))
+CREATE INDEX IX_DirectorAudit_Company_Class_ChangedAt
+    ON PBOAssetMgmt.dbo.DirectorAudit (Company, Class, ChangedAt DESC);
+GO
@@ -0,0 +1,40 @@
+-- Row versions for optimistic concurrency on director edits. SQL Server bumps a
+-- rowversion column on every insert and update of its row, so a client that
+-- sends back the version it read can be refused (409) when somebody else has
+-- written the row since. The projection carries a copy of the base row's version,
+-- which is what the read endpoints return as "Version".
+
+IF COL_LENGTH(N'PBOAssetMgmt.dbo.AO_UserAssociation', N'RowVersion') IS NULL
+ALTER TABLE PBOAssetMgmt.dbo.AO_UserAssociation ADD RowVersion rowversion NOT NULL;
+GO
+
+IF COL_LENGTH(N'PBOAssetMgmt.dbo.DirectorProjection', N'RowVersion') IS NULL
+ALTER TABLE PBOAssetMgmt.dbo.DirectorProjection ADD RowVersion binary(8) NULL;
+GO
+
+-- the NtKey index covers the full row for keyset paging, keep it that way
+IF EXISTS (SELECT 1 FROM PBOAssetMgmt.sys.indexes
+           WHERE name = N'IX_DirectorProjection_NtKey'
+             AND object_id = OBJECT_ID(N'PBOAssetMgmt.dbo.DirectorProjection'))
+CREATE INDEX IX_DirectorProjection_NtKey
+    ON PBOAssetMgmt.dbo.DirectorProjection (NtKey, Company, Class)
+    INCLUDE (BusinessUnit, Role, NT_Account, RowVersion)
+    WITH (DROP_EXISTING = ON);
+GO
+
+IF EXISTS (SELECT 1 FROM PBOAssetMgmt.sys.indexes
+           WHERE name = N'IX_DirectorProjection_BusinessUnit'
+             AND object_id = OBJECT_ID(N'PBOAssetMgmt.dbo.DirectorProjection'))
+CREATE INDEX IX_DirectorProjection_BusinessUnit
+    ON PBOAssetMgmt.dbo.DirectorProjection (BusinessUnit, Company, Class)
+    INCLUDE (Role, NT_Account, RowVersion)
+    WITH (DROP_EXISTING = ON);
+GO
+
+UPDATE p SET p.RowVersion = a.RowVersion
+FROM PBOAssetMgmt.dbo.DirectorProjection p
+JOIN PBOAssetMgmt.dbo.AO_UserAssociation a
+  ON a.Company = p.Company AND a.Class = p.Class AND a.Role = p.Role
+ AND (a.NT_Account = p.NT_Account OR (a.NT_Account IS NULL AND p.NT_Account IS NULL))
+WHERE p.RowVersion IS NULL;
+GO
@@ -0,0 +1,22 @@
+-- Keyset paging on the business unit. BusinessUnit is nullable and a NULL fails
+-- every comparison of the paging predicate, so rows without a business unit were
+-- skipped or repeated from one page to the next. BuKey is the NULL-free sort key,
+-- like NtKey for the NT account, and replaces BusinessUnit in the paging index.
+
+IF COL_LENGTH(N'PBOAssetMgmt.dbo.DirectorProjection', N'BuKey') IS NULL
+ALTER TABLE PBOAssetMgmt.dbo.DirectorProjection ADD BuKey AS ISNULL(BusinessUnit, N'') PERSISTED;
+GO
+
+IF EXISTS (SELECT 1 FROM PBOAssetMgmt.sys.indexes
+           WHERE name = N'IX_DirectorProjection_BusinessUnit'
+             AND object_id = OBJECT_ID(N'PBOAssetMgmt.dbo.DirectorProjection'))
+DROP INDEX IX_DirectorProjection_BusinessUnit ON PBOAssetMgmt.dbo.DirectorProjection;
+GO
+
+IF NOT EXISTS (SELECT 1 FROM PBOAssetMgmt.sys.indexes
+               WHERE name = N'IX_DirectorProjection_BuKey'
+                 AND object_id = OBJECT_ID(N'PBOAssetMgmt.dbo.DirectorProjection'))
+CREATE INDEX IX_DirectorProjection_BuKey
+    ON PBOAssetMgmt.dbo.DirectorProjection (BuKey, Company, Class)
+    INCLUDE (BusinessUnit, Role, NT_Account, RowVersion);
+GO
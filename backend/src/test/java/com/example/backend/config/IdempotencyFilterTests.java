@@ -0,0 +1,130 @@
+package com.example.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+
+class IdempotencyFilterTests {
+
+    private final IdempotencyFilter filter = new IdempotencyFilter(
+            new IdempotencyProperties(true, Duration.ofHours(1), DataSize.ofMegabytes(1), Duration.ofMillis(100),
+                    DataSize.ofBytes(64)),
+            new SimpleMeterRegistry());
+
+    private final AtomicInteger runs = new AtomicInteger();
+    private int status = 201;
+
+    // the controller: counts its runs and answers with the body it was sent
+    private final FilterChain chain = (request, response) -> {
+        runs.incrementAndGet();
+        byte[] body = request.getInputStream().readAllBytes();
+        ((HttpServletResponse) response).setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(body);
+    };
+
+    @Test
+    void replaysTheFirstAnswerInsteadOfRunningAgain() throws Exception {
+        MockHttpServletResponse first = send("key-1", "{\"a\":1}");
+        MockHttpServletResponse retry = send("key-1", "{\"a\":1}");
+
+        assertThat(runs).hasValue(1);
+        assertThat(first.getStatus()).isEqualTo(201);
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo("{\"a\":1}");
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void storesClientErrorsToo() throws Exception {
+        status = 409;
+        send("key-1", "{}");
+        status = 201;
+
+        assertThat(send("key-1", "{}").getStatus()).isEqualTo(409);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void refusesAKeyReusedForAnotherRequest() throws Exception {
+        send("key-1", "{\"a\":1}");
+
+        MockHttpServletResponse reused = send("key-1", "{\"a\":2}");
+
+        assertThat(reused.getStatus()).isEqualTo(422);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void doesNotStoreServerErrors() throws Exception {
+        status = 503;
+        assertThat(send("key-1", "{}").getStatus()).isEqualTo(503);
+        status = 201;
+
+        MockHttpServletResponse retry = send("key-1", "{}");
+
+        assertThat(runs).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    void scopesKeysToTheUser() throws Exception {
+        send("key-1", "{}");
+
+        MockHttpServletRequest other = request("key-1", "{}");
+        other.setUserPrincipal(() -> "someone-else");
+        filter.doFilter(other, new MockHttpServletResponse(), chain);
+
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void refusesBodiesOverTheLimitWithoutRunning() throws Exception {
+        MockHttpServletResponse response = send("key-1", "x".repeat(65));
+
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(runs).hasValue(0);
+    }
+
+    @Test
+    void refusesABlankKey() throws Exception {
+        assertThat(send(" ", "{}").getStatus()).isEqualTo(400);
+        assertThat(runs).hasValue(0);
+    }
+
+    @Test
+    void leavesRequestsWithoutAKeyAlone() throws Exception {
+        send(null, "{}");
+        send(null, "{}");
+
+        assertThat(runs).hasValue(2);
+    }
+
+    private MockHttpServletResponse send(String key, String body) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(key, body), response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users/directors:bulkUpdateNt");
+        if (key != null) request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.backend.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MSSQLServerContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.ToxiproxyContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.backend.repository.UserRepository;
+
+import eu.rekawek.toxiproxy.Proxy;
+import eu.rekawek.toxiproxy.ToxiproxyClient;
+import eu.rekawek.toxiproxy.model.ToxicDirection;
+
+/**
+ * /add-director against a real SQL Server: the UPDLOCK/HOLDLOCK batch in
+ * {@link UserRepository#assignDirector} is about SQL Server's range locking, which
+ * an embedded database does not reproduce. The application reaches the server
+ * through Toxiproxy so the latency test can give every round-trip a fixed cost.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AddDirectorIntegrationTests {
+
+    private static final int CONCURRENT_ASSIGNS = 16;
+    private static final int ROUND_TRIP_LATENCY_MS = 5;
+    private static final int LATENCY_SAMPLES = 20;
+
+    private static final Network network = Network.newNetwork();
+
+    @Container
+    private static final MSSQLServerContainer<?> sqlServer =
+            new MSSQLServerContainer<>("mcr.microsoft.com/mssql/server:2022-latest")
+                    .acceptLicense()
+                    .withNetwork(network)
+                    .withNetworkAliases("mssql");
+
+    @Container
+    private static final ToxiproxyContainer toxiproxy =
+            new ToxiproxyContainer("ghcr.io/shopify/toxiproxy:2.5.0").withNetwork(network);
+
+    private static Proxy proxy;
+
+    @Autowired
+    private TestRestTemplate http;
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void createDirectoryTables() throws Exception {
+        String url = "jdbc:sqlserver://" + sqlServer.getHost() + ":"
+                + sqlServer.getMappedPort(MSSQLServerContainer.MS_SQL_SERVER_PORT) + ";encrypt=false";
+        String script = new ClassPathResource("db/directory-base-tables.sql").getContentAsString(StandardCharsets.UTF_8);
+        try (Connection con = DriverManager.getConnection(url, sqlServer.getUsername(), sqlServer.getPassword());
+             Statement st = con.createStatement()) {
+            for (String batch : script.split("(?m)^GO\\s*$")) {
+                if (!batch.isBlank()) st.execute(batch);
+            }
+        }
+        proxy = new ToxiproxyClient(toxiproxy.getHost(), toxiproxy.getControlPort())
+                .createProxy("mssql", "0.0.0.0:8666", "mssql:" + MSSQLServerContainer.MS_SQL_SERVER_PORT);
+    }
+
+    @DynamicPropertySource
+    static void dataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlserver://" + toxiproxy.getHost() + ":"
+                + toxiproxy.getMappedPort(8666) + ";databaseName=PBOAssetMgmt;encrypt=false");
+        registry.add("spring.datasource.username", sqlServer::getUsername);
+        registry.add("spring.datasource.password", sqlServer::getPassword);
+    }
+
+    @Test
+    void concurrentAssignsForOneClassInsertOneDirector() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<ResponseEntity<Map>>> assigns = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_ASSIGNS; i++) {
+            Map<String, String> body = Map.of("company", "FUTE", "businessUnit", "EUR\\Sales",
+                    "clazz", "C000", "ntAccount", "racer" + i);
+            assigns.add(() -> {
+                start.await();
+                return http.postForEntity("/api/users/add-director", body, Map.class);
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENT_ASSIGNS);
+        List<HttpStatus> statuses = new ArrayList<>();
+        try {
+            List<Future<ResponseEntity<Map>>> responses = assigns.stream().map(pool::submit).toList();
+            start.countDown();
+            for (Future<ResponseEntity<Map>> response : responses) {
+                statuses.add(HttpStatus.valueOf(response.get().getStatusCode().value()));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // one 1 (200), everybody else 3 (409 "A director already exists"); no deadlock victims (500)
+        assertThat(statuses).filteredOn(s -> s == HttpStatus.OK).hasSize(1);
+        assertThat(statuses).filteredOn(s -> s == HttpStatus.CONFLICT).hasSize(CONCURRENT_ASSIGNS - 1);
+        assertThat(countDirectors("PBOAssetMgmt.dbo.AO_UserAssociation", "C000")).isEqualTo(1);
+        assertThat(countDirectors("PBOAssetMgmt.dbo.DirectorProjection", "C000")).isEqualTo(1);
+    }
+
+    @Test
+    void oneRoundTripIsFasterThanTheFiveItReplaces() throws Exception {
+        proxy.toxics().latency("round-trip", ToxicDirection.DOWNSTREAM, ROUND_TRIP_LATENCY_MS);
+        long[] batched = new long[LATENCY_SAMPLES];
+        long[] sequential = new long[LATENCY_SAMPLES];
+        try {
+            for (int i = 0; i < LATENCY_SAMPLES; i++) {
+                String clazz = String.format("C%03d", 10 + 2 * i);
+                long t0 = System.nanoTime();
+                assertThat(repository.assignDirector("FUTE", "EUR\\Sales", clazz, "batched" + i)).isEqualTo(1);
+                batched[i] = System.nanoTime() - t0;
+
+                clazz = String.format("C%03d", 11 + 2 * i);
+                t0 = System.nanoTime();
+                assertThat(assignDirectorInFiveRoundTrips("FUTE", "EUR\\Sales", clazz, "EUR\\sequential" + i)).isEqualTo(1);
+                sequential[i] = System.nanoTime() - t0;
+            }
+        } finally {
+            proxy.toxics().get("round-trip").remove();
+        }
+
+        long batchedMedian = median(batched);
+        long sequentialMedian = median(sequential);
+        // four round-trips fewer, less whatever the batch spends on the projection refresh
+        assertThat(sequentialMedian - batchedMedian)
+                .as("one batch %.1f ms, five statements %.1f ms (medians of %d)",
+                        batchedMedian / 1e6, sequentialMedian / 1e6, LATENCY_SAMPLES)
+                .isGreaterThan(2L * ROUND_TRIP_LATENCY_MS * 1_000_000);
+    }
+
+    /** The checks and insert assignDirector used to issue, one auto-committed statement each. */
+    private int assignDirectorInFiveRoundTrips(String company, String businessUnit, String clazz, String ntAccount) {
+        if (!exists("SELECT CASE WHEN EXISTS (SELECT 1 FROM CorporateQuote.dbo.BUxClass"
+                + " WHERE Company = ? AND Class = ?) THEN 1 ELSE 0 END", company, clazz)) return -1;
+        if (!exists("SELECT CASE WHEN EXISTS (SELECT 1 FROM CorporateQuote.dbo.Groups"
+                + " WHERE Company = ? AND GroupNTDesc = ?) THEN 1 ELSE 0 END", company, businessUnit)) return 0;
+        if (exists("SELECT CASE WHEN EXISTS (SELECT 1 FROM PBOAssetMgmt.dbo.AO_UserAssociation"
+                + " WHERE Company = ? AND Class = ? AND BU = ? AND Role = 'director') THEN 1 ELSE 0 END",
+                company, clazz, businessUnit)) return 3;
+        if (exists("SELECT CASE WHEN EXISTS (SELECT 1 FROM PBOAssetMgmt.dbo.AO_UserAssociation"
+                + " WHERE Company = ? AND Class = ? AND BU <> ? AND Role = 'director') THEN 1 ELSE 0 END",
+                company, clazz, businessUnit)) return 2;
+        return jdbcTemplate.update("INSERT INTO PBOAssetMgmt.dbo.AO_UserAssociation (Company, Class, NT_Account, BU, Role)"
+                + " VALUES (?, ?, ?, ?, 'director')", company, clazz, ntAccount, businessUnit);
+    }
+
+    private boolean exists(String sql, Object... args) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, args));
+    }
+
+    private int countDirectors(String table, String clazz) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table
+                + " WHERE Company = 'FUTE' AND Class = ? AND Role = 'director'", Integer.class, clazz);
+        return count == null ? 0 : count;
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
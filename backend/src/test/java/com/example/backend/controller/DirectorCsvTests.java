@@ -0,0 +1,71 @@
+package com.example.backend.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.backend.model.DirectorAssignment;
+
+class DirectorCsvTests {
+
+    @Test
+    void skipsTheHeaderAndBlankLines() throws IOException {
+        List<DirectorAssignment> rows = parse("""
+                Company,BusinessUnit,Clazz,NtAccount
+
+                FUTE,BU 1,E00001,EUR\\smith
+                """);
+
+        assertThat(rows).containsExactly(new DirectorAssignment("FUTE", "BU 1", "E00001", "EUR\\smith"));
+    }
+
+    @Test
+    void recognisesTheHeaderAfterAByteOrderMark() throws IOException {
+        List<DirectorAssignment> rows = parse("\uFEFFcompany,businessUnit,clazz,ntAccount\r\nFUTE,BU 1,E00001,EUR\\smith\r\n");
+
+        assertThat(rows).containsExactly(new DirectorAssignment("FUTE", "BU 1", "E00001", "EUR\\smith"));
+    }
+
+    @Test
+    void readsAFirstRowThatIsNotAHeader() throws IOException {
+        assertThat(parse("FUTE,BU 1,E00001,EUR\\smith"))
+                .containsExactly(new DirectorAssignment("FUTE", "BU 1", "E00001", "EUR\\smith"));
+    }
+
+    @Test
+    void unquotesFieldsAndTrimsUnquotedOnes() throws IOException {
+        List<DirectorAssignment> rows = parse("""
+                "FUTE"," BU, with ""comma"" ", E00001 ,EUR\\smith
+                """);
+
+        assertThat(rows).containsExactly(new DirectorAssignment("FUTE", "BU, with \"comma\"", "E00001", "EUR\\smith"));
+    }
+
+    @Test
+    void readsAnOptionalVersionColumn() throws IOException {
+        List<DirectorAssignment> rows = parse("""
+                company,businessUnit,clazz,ntAccount,version
+                FUTE,BU 1,E00001,EUR\\smith, 00000000000007D1
+                FUTE,BU 1,E00002,EUR\\jones,
+                FUTE,BU 1,E00003,EUR\\brown
+                """);
+
+        assertThat(rows).extracting(DirectorAssignment::version).containsExactly("00000000000007D1", null, null);
+    }
+
+    @Test
+    void rejectsAWrongNumberOfFieldsWithItsLine() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> parse("company,businessUnit,clazz,ntAccount\nFUTE,BU 1,E00001\n"))
+                .withMessage("Line 2: expected 4 or 5 fields but found 3");
+    }
+
+    private static List<DirectorAssignment> parse(String csv) throws IOException {
+        return DirectorCsv.parse(new StringReader(csv));
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.backend.model.AuditEntry;
+import com.example.backend.repository.AuditRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuditLogServiceTests {
+
+    private static final int CAPACITY = 2;
+    private static final int BATCH_SIZE = 2;
+
+    @TempDir
+    Path dir;
+
+    private final FakeAuditRepository repository = new FakeAuditRepository();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void writerPastTheQueueCapacityAppendsToTheFileAndItIsReplayed() throws IOException {
+        AuditLogService audit = audit();
+        record(audit, "E1");
+        record(audit, "E2");
+        record(audit, "E3");
+
+        assertThat(entries("overflow")).isEqualTo(1);
+        assertThat(Files.readAllLines(fallbackFile())).hasSize(1);
+
+        audit.flush();
+
+        assertThat(repository.classes()).containsExactly("E1", "E2", "E3");
+        assertThat(fallbackFile()).doesNotExist();
+        assertThat(entries("persisted")).isEqualTo(2);
+        assertThat(entries("replayed")).isEqualTo(1);
+    }
+
+    @Test
+    void entriesOfAFailedBatchAreReplayedOnceTheDatabaseIsBack() throws IOException {
+        AuditLogService audit = audit();
+        repository.failing = true;
+        record(audit, "E1");
+        record(audit, "E2");
+
+        audit.flush();
+
+        assertThat(repository.classes()).isEmpty();
+        assertThat(entries("fallback")).isEqualTo(2);
+        assertThat(Files.readAllLines(fallbackFile())).hasSize(2);
+
+        repository.failing = false;
+        audit.flush();
+
+        assertThat(repository.classes()).containsExactly("E1", "E2");
+        assertThat(fallbackFile()).doesNotExist();
+        assertThat(entries("replayed")).isEqualTo(2);
+    }
+
+    @Test
+    void aReplayThatFailsHalfwayKeepsOnlyWhatWasNotInserted() throws IOException {
+        writeFallbackFile("E1", "E2", "E3", "E4", "E5");
+        AuditLogService audit = audit();
+        repository.failAfterInserts = 1;
+
+        audit.flush();
+
+        assertThat(repository.classes()).containsExactly("E1", "E2");
+        Path replayFile = dir.resolve("audit-fallback.jsonl.replay");
+        assertThat(Files.readAllLines(replayFile)).hasSize(3);
+        assertThat(entries("replayed")).isEqualTo(2);
+
+        // a later write while the replay file is pending goes to a fresh fallback file
+        repository.failAfterInserts = Integer.MAX_VALUE;
+        audit.close();
+        record(audit, "E6");
+        assertThat(Files.readAllLines(fallbackFile())).hasSize(1);
+        assertThat(Files.readAllLines(replayFile)).hasSize(3);
+    }
+
+    @Test
+    void nextFlushAfterAPersistedBatchPicksUpTheRestOfAReplay() throws IOException {
+        writeFallbackFile("E1", "E2", "E3");
+        AuditLogService audit = audit();
+        repository.failAfterInserts = 0;
+        audit.flush();
+        assertThat(repository.classes()).isEmpty();
+
+        repository.failAfterInserts = Integer.MAX_VALUE;
+        record(audit, "E4");
+        audit.flush();
+
+        assertThat(repository.classes()).containsExactly("E4", "E1", "E2", "E3");
+        assertThat(dir.resolve("audit-fallback.jsonl.replay")).doesNotExist();
+        assertThat(entries("replayed")).isEqualTo(3);
+    }
+
+    @Test
+    void unreadableLinesAreSkipped() throws IOException {
+        writeFallbackFile("E1");
+        Files.writeString(fallbackFile(), "{not json\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        AuditLogService audit = audit();
+
+        audit.flush();
+
+        assertThat(repository.classes()).containsExactly("E1");
+        assertThat(fallbackFile()).doesNotExist();
+    }
+
+    private AuditLogService audit() {
+        return new AuditLogService(repository, objectMapper(), registry, CAPACITY, BATCH_SIZE, fallbackFile());
+    }
+
+    private static void record(AuditLogService audit, String clazz) {
+        audit.record(AuditEntry.ASSIGN_DIRECTOR, "FUTE", clazz, "BU 1", "director", null, "EUR\\smith");
+    }
+
+    private void writeFallbackFile(String... classes) throws IOException {
+        // the way the service itself writes them
+        AuditLogService writer = new AuditLogService(new FakeAuditRepository(), objectMapper(),
+                new SimpleMeterRegistry(), 0, BATCH_SIZE, fallbackFile());
+        for (String clazz : classes) record(writer, clazz);
+    }
+
+    private Path fallbackFile() {
+        return dir.resolve("audit-fallback.jsonl");
+    }
+
+    private double entries(String outcome) {
+        return registry.counter("directory.audit.entries", "outcome", outcome).count();
+    }
+
+    private static ObjectMapper objectMapper() {
+        return new ObjectMapper().findAndRegisterModules();
+    }
+
+    private static final class FakeAuditRepository extends AuditRepository {
+
+        private final List<AuditEntry> inserted = new ArrayList<>();
+        volatile boolean failing;
+        // inserts that succeed before the next ones fail
+        volatile int failAfterInserts = Integer.MAX_VALUE;
+
+        FakeAuditRepository() {
+            super(null);
+        }
+
+        @Override
+        public void insert(List<AuditEntry> entries) {
+            if (failing || failAfterInserts-- <= 0) throw new IllegalStateException("database down");
+            inserted.addAll(entries);
+        }
+
+        List<String> classes() {
+            return inserted.stream().map(AuditEntry::clazz).toList();
+        }
+    }
+}
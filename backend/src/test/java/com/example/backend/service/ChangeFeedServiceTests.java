@@ -0,0 +1,145 @@
+package com.example.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.backend.model.DirectorEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the feed behind a bare MVC endpoint, so events really go through
+ * {@link SseEmitter} into a response the test can read.
+ */
+class ChangeFeedServiceTests {
+
+    private static final int CLIENT_BUFFER = 4;
+    private static final Pattern ID = Pattern.compile("^id:(\\S+)$", Pattern.MULTILINE);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ChangeFeedService feed = new ChangeFeedService(new ObjectMapper(), registry,
+            1, 100, CLIENT_BUFFER, Duration.ofMinutes(1));
+    private final Changes changes = new Changes(feed);
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(changes).build();
+
+    @AfterEach
+    void close() {
+        feed.close();
+    }
+
+    @Test
+    void newClientGetsReadyThenEvents() throws Exception {
+        MvcResult client = subscribe(null);
+        awaitEvent(client, "ready");
+
+        feed.publish(event("E00001"));
+
+        awaitEvent(client, "updated");
+        assertThat(client.getResponse().getContentAsString()).contains("\"clazz\":\"E00001\"");
+    }
+
+    @Test
+    void resumesAfterTheLastEventId() throws Exception {
+        MvcResult first = subscribe(null);
+        awaitEvent(first, "ready");
+        feed.publish(event("E00001"));
+        awaitEvent(first, "updated");
+        String seen = lastId(first);
+        feed.publish(event("E00002"));
+        feed.publish(event("E00003"));
+
+        MvcResult resumed = subscribe(seen);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> content(resumed).contains("E00003"));
+        assertThat(content(resumed)).contains("E00002").doesNotContain("E00001").doesNotContain("event:ready");
+    }
+
+    @Test
+    void resyncsWhenTheMissedEventsAreGoneOrTooMany() throws Exception {
+        MvcResult first = subscribe(null);
+        awaitEvent(first, "ready");
+        String before = lastId(first);
+        for (int i = 0; i < CLIENT_BUFFER; i++) feed.publish(event("E0000" + i));
+
+        awaitEvent(subscribe(before), "resync");
+        awaitEvent(subscribe("from-an-earlier-run-7"), "resync");
+    }
+
+    @Test
+    void disconnectsAClientThatFallsBehind() throws Exception {
+        MvcResult slow = subscribe(null);
+        awaitEvent(slow, "ready");
+        SseEmitter emitter = changes.last;
+
+        // holding the emitter's monitor stalls the sender thread in the middle of a send
+        synchronized (emitter) {
+            for (int i = 0; i < CLIENT_BUFFER + 2; i++) feed.publish(event("E0000" + i));
+        }
+
+        assertThat(registry.counter("directory.changes.overflows").count()).isEqualTo(1);
+        assertThat(registry.get("directory.changes.subscribers").gauge().value()).isZero();
+        // the rest of the feed carries on
+        MvcResult other = subscribe(null);
+        feed.publish(event("E00009"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> content(other).contains("E00009"));
+    }
+
+    private MvcResult subscribe(String lastEventId) throws Exception {
+        return lastEventId == null
+                ? mvc.perform(get("/changes")).andReturn()
+                : mvc.perform(get("/changes").header("Last-Event-ID", lastEventId)).andReturn();
+    }
+
+    private static void awaitEvent(MvcResult client, String name) {
+        await().atMost(Duration.ofSeconds(5)).until(() -> content(client).contains("event:" + name + "\n"));
+    }
+
+    private static String lastId(MvcResult client) throws Exception {
+        Matcher m = ID.matcher(content(client));
+        String id = null;
+        while (m.find()) id = m.group(1);
+        return id;
+    }
+
+    private static String content(MvcResult client) throws Exception {
+        return client.getResponse().getContentAsString();
+    }
+
+    private static DirectorEvent event(String clazz) {
+        return new DirectorEvent(DirectorEvent.UPDATED, "FUTE", clazz, List.of());
+    }
+
+    @RestController
+    static class Changes {
+
+        private final ChangeFeedService feed;
+        volatile SseEmitter last;
+
+        Changes(ChangeFeedService feed) {
+            this.feed = feed;
+        }
+
+        @GetMapping("/changes")
+        SseEmitter changes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            last = feed.subscribe(lastEventId);
+            return last;
+        }
+    }
+}
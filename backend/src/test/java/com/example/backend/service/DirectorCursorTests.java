@@ -0,0 +1,88 @@
+package com.example.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.backend.model.Director;
+import com.example.backend.model.DirectorSearch;
+import com.example.backend.model.DirectorSearch.Sort;
+
+class DirectorCursorTests {
+
+    private static final DirectorSearch QUERY =
+            new DirectorSearch("FUTE", null, "smi", null, Sort.NT_ACCOUNT, false, null, 50);
+
+    @Test
+    void roundTripsTheSortKeyIncludingNulls() {
+        Director last = new Director("FUTE", null, "E00001", "director", "EUR\\smith", "00000000000007D1");
+
+        Director decoded = DirectorCursor.decode(DirectorCursor.encode(QUERY, last), QUERY);
+
+        // only the sort key travels; role is fixed and the version is not part of the order
+        assertThat(decoded).isEqualTo(new Director("FUTE", null, "E00001", "director", "EUR\\smith", null));
+    }
+
+    @Test
+    void keepsValuesThatLookLikeTheMarkers() {
+        Director last = new Director("n", "", "v", "director", "", null);
+
+        assertThat(DirectorCursor.decode(DirectorCursor.encode(QUERY, last), QUERY))
+                .isEqualTo(new Director("n", "", "v", "director", "", null));
+    }
+
+    @Test
+    void missingCursorIsTheFirstPage() {
+        assertThat(DirectorCursor.decode(null, QUERY)).isNull();
+        assertThat(DirectorCursor.decode("", QUERY)).isNull();
+    }
+
+    @Test
+    void refusesACursorFromAnotherSearch() {
+        String cursor = DirectorCursor.encode(QUERY, new Director("FUTE", "BU", "E1", "director", "EUR\\a", null));
+        DirectorSearch descending = new DirectorSearch("FUTE", null, "smi", null, Sort.NT_ACCOUNT, true, null, 50);
+        DirectorSearch otherFilter = new DirectorSearch("FUTE", "BU", "smi", null, Sort.NT_ACCOUNT, false, null, 50);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> DirectorCursor.decode(cursor, descending))
+                .withMessageContaining("different sort");
+        assertThatIllegalArgumentException().isThrownBy(() -> DirectorCursor.decode(cursor, otherFilter))
+                .withMessageContaining("different sort");
+        // the page size is not part of the order, so it may change between pages
+        DirectorSearch biggerPages = new DirectorSearch("FUTE", null, "smi", null, Sort.NT_ACCOUNT, false, null, 200);
+        assertThat(DirectorCursor.decode(cursor, biggerPages)).isNotNull();
+    }
+
+    @Test
+    void refusesATamperedChecksum() {
+        String cursor = DirectorCursor.encode(QUERY, new Director("FUTE", "BU", "E1", "director", "EUR\\a", null));
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        char first = raw.charAt(0);
+        String tampered = (first == '0' ? '1' : '0') + raw.substring(1);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> DirectorCursor.decode(encode(tampered), QUERY))
+                .withMessageContaining("different sort");
+    }
+
+    @Test
+    void refusesMalformedCursors() {
+        assertThatIllegalArgumentException().isThrownBy(() -> DirectorCursor.decode("not base64!", QUERY))
+                .withMessage("Malformed cursor.");
+        assertThatIllegalArgumentException().isThrownBy(() -> DirectorCursor.decode(encode("abc"), QUERY))
+                .withMessage("Malformed cursor.");
+        String cursor = DirectorCursor.encode(QUERY, new Director("FUTE", "BU", "E1", "director", "EUR\\a", null));
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        // a column that is neither NULL nor a value
+        String unmarked = raw.replace("\u0000vFUTE", "\u0000FUTE");
+        assertThatIllegalArgumentException().isThrownBy(() -> DirectorCursor.decode(encode(unmarked), QUERY))
+                .withMessage("Malformed cursor.");
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
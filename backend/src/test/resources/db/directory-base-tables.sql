@@ -0,0 +1,50 @@
+-- The pre-existing directory tables the application and its migrations expect,
+-- reduced to the columns it uses, with one company, one BU and 100 classes.
+
+CREATE DATABASE PBOAssetMgmt;
+GO
+CREATE DATABASE CorporateQuote;
+GO
+CREATE DATABASE DATAWHSE;
+GO
+
+CREATE TABLE PBOAssetMgmt.dbo.AO_UserAssociation (
+    Company    nvarchar(50)  NOT NULL,
+    Class      nvarchar(100) NOT NULL,
+    NT_Account nvarchar(255) NULL,
+    BU         nvarchar(255) NULL,
+    Role       nvarchar(50)  NOT NULL
+);
+GO
+
+CREATE TABLE CorporateQuote.dbo.Groups (
+    GID         int           NOT NULL PRIMARY KEY,
+    Company     nvarchar(50)  NOT NULL,
+    GroupNTDesc nvarchar(255) NOT NULL
+);
+GO
+
+CREATE TABLE CorporateQuote.dbo.BUxClass (
+    Company nvarchar(50)  NOT NULL,
+    Class   nvarchar(100) NOT NULL,
+    BU      int           NOT NULL
+);
+GO
+
+CREATE TABLE DATAWHSE.dbo.ADSUSERS (
+    DisplayName nvarchar(255) NULL,
+    NT_Account  nvarchar(255) NULL
+);
+GO
+
+INSERT INTO CorporateQuote.dbo.Groups (GID, Company, GroupNTDesc) VALUES (1, N'FUTE', N'EUR\Sales');
+GO
+
+INSERT INTO CorporateQuote.dbo.BUxClass (Company, Class, BU)
+SELECT N'FUTE', CONCAT(N'C', FORMAT(n, '000')), 1
+FROM (SELECT TOP (100) ROW_NUMBER() OVER (ORDER BY (SELECT NULL)) - 1 AS n FROM sys.all_objects) AS t;
+GO
+
+INSERT INTO DATAWHSE.dbo.ADSUSERS (DisplayName, NT_Account)
+VALUES (N'Doe, Jane', N'EUR\jdoe'), (N'Roe, Richard', N'EUR\rroe');
+GO
@@ -0,0 +1,85 @@
+#!/usr/bin/env node
+/*
+ * Prepares a copied React build for the backend jar. Run by the backend's Maven
+ * build on target/classes/static:
+ *
+ *   node precompress-static.js <static dir> [min bytes]
+ *
+ * 1. Removes hashed files under static/ that asset-manifest.json no longer
+ *    references (bundles left over from earlier builds), and all source maps.
+ * 2. Writes .br and .gz next to every remaining text asset of at least
+ *    <min bytes>, for Spring's EncodedResourceResolver to serve as-is.
+ */
+const fs = require('fs');
+const path = require('path');
+const zlib = require('zlib');
+
+const COMPRESSIBLE = new Set(['.js', '.css', '.html', '.json', '.svg', '.txt']);
+
+const root = process.argv[2];
+const minBytes = Number(process.argv[3] || 1024);
+if (!root) {
+  console.error('usage: precompress-static.js <static dir> [min bytes]');
+  process.exit(2);
+}
+
+const manifestFile = path.join(root, 'asset-manifest.json');
+if (!fs.existsSync(manifestFile)) {
+  console.log(`precompress-static: no asset-manifest.json in ${root}, nothing to do`);
+  process.exit(0);
+}
+
+function walk(dir) {
+  return fs.readdirSync(dir, { withFileTypes: true }).flatMap(entry => {
+    const file = path.join(dir, entry.name);
+    return entry.isDirectory() ? walk(file) : [file];
+  });
+}
+
+// manifest entries are URLs under the build's public path, e.g. /static/static/js/main.440f2455.js
+const manifest = JSON.parse(fs.readFileSync(manifestFile, 'utf8'));
+const publicPath = manifest.files['index.html'].replace(/index\.html$/, '');
+const referenced = new Set();
+for (const url of Object.values(manifest.files)) {
+  const file = path.join(root, url.slice(publicPath.length));
+  for (const companion of [file, file + '.LICENSE.txt']) {
+    referenced.add(companion);
+    referenced.add(companion + '.br');
+    referenced.add(companion + '.gz');
+  }
+}
+
+let pruned = 0;
+let prunedBytes = 0;
+const hashedDir = path.join(root, 'static');
+for (const file of fs.existsSync(hashedDir) ? walk(hashedDir) : []) {
+  if (file.endsWith('.map') || !referenced.has(file)) {
+    prunedBytes += fs.statSync(file).size;
+    fs.unlinkSync(file);
+    pruned++;
+  }
+}
+
+let compressed = 0;
+let before = 0;
+let after = 0;
+for (const file of walk(root)) {
+  if (!COMPRESSIBLE.has(path.extname(file))) continue;
+  const content = fs.readFileSync(file);
+  if (content.length < minBytes) continue;
+  const br = zlib.brotliCompressSync(content, {
+    params: {
+      [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY,
+      [zlib.constants.BROTLI_PARAM_SIZE_HINT]: content.length,
+    },
+  });
+  const gz = zlib.gzipSync(content, { level: zlib.constants.Z_BEST_COMPRESSION });
+  fs.writeFileSync(file + '.br', br);
+  fs.writeFileSync(file + '.gz', gz);
+  compressed++;
+  before += content.length;
+  after += br.length;
+}
+
+console.log(`precompress-static: pruned ${pruned} stale files (${Math.round(prunedBytes / 1024)} KB), `
+  + `precompressed ${compressed} assets (${Math.round(before / 1024)} KB -> ${Math.round(after / 1024)} KB brotli)`);
@@ -0,0 +1,52 @@
+import React, { useRef } from 'react';
+import AsyncSelect from 'react-select/async';
+import { suggestNTAccounts } from '../services/api';
+
+const DEBOUNCE_MS = 250;
+
+// NT account picker that asks /ntaccounts/suggest for a few matches as the user types
+// instead of loading the whole region up front
+function NtAccountPicker({ label, company, value, onChange, placeholder, initialOptions }) {
+    const timer = useRef(null);
+
+    function loadOptions(input) {
+        clearTimeout(timer.current);
+        return new Promise(resolve => {
+            timer.current = setTimeout(async () => {
+                try {
+                    const users = await suggestNTAccounts(company, input);
+                    resolve(users.map(u => ({ value: u.value, label: u.label })));
+                } catch (error) {
+                    console.error('Failed to fetch NT Account suggestions:', error);
+                    resolve([]);
+                }
+            }, DEBOUNCE_MS);
+        });
+    }
+
+    const selected = value ? { value, label: value } : null;
+    return(
+        <div className='dropdown-selector' style={{minWidth: '170px'}}>
+            <label className='form-label fw-bold'>{label}</label>
+            <AsyncSelect
+                // a new company starts over with its own suggestions
+                key={company}
+                cacheOptions
+                defaultOptions={initialOptions || true}
+                loadOptions={loadOptions}
+                value={selected}
+                onChange={(option) => onChange({ target: { value: option?.value || '' } })}
+                placeholder={placeholder}
+                isDisabled={!company}
+                classNamePrefix="react-select"
+                menuPortalTarget={document.body}
+                menuPosition="fixed"
+                styles={{
+                    menuPortal: (base) => ({ ...base, zIndex: 9999 }),
+                }}
+            />
+        </div>
+    );
+}
+
+export default NtAccountPicker;
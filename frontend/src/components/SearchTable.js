@@ -1,8 +1,7 @@
-import React, { useState, useEffect } from 'react';
-import DropDownSelector from './DropdownSelector';
+import React, { useState } from 'react';
+import NtAccountPicker from './NtAccountPicker';
 import {
     updateNTAccount,
-    getNTAccountsByCompany,
     deleteClassFromBu,
     deleteRowFromTable
 } from '../services/api';
@@ -11,24 +10,6 @@ import './styles/SearchTable.css';
 function SearchTable({ data, onUpdateComplete, addingMode,hasSearched }) {
     const [editRowIndex, setEditRowIndex] = useState(null);
     const [ntValue, setNtValue] = useState('');
-    const [ntDropdownOptions, setNtDropdownOptions] = useState([]);
-
-    useEffect(() => {
-        if (editRowIndex !== null) {
-            const company = data[editRowIndex].Company;
-            fetchNTOptions(company);
-        }
-    }, [data, editRowIndex]);
-
-    async function fetchNTOptions(company) {
-        try {
-            const list = await getNTAccountsByCompany(company);
-            const options = list.map(acc => ({ value: acc.value, label: acc.label }));
-            setNtDropdownOptions(options);
-        } catch (error) {
-            console.error('Failed to fetch NT Account options:', error);
-        }
-    }
 
     function handleUpdateClick(index)  {
         const currentNT = data[index]?.NT_Account || ''; // Avoid null
@@ -39,12 +20,20 @@ function SearchTable({ data, onUpdateComplete, addingMode,hasSearched }) {
 
     async function handleSaveClick(row) {
         try {
-            await updateNTAccount(row.Company, row.Class, row.BusinessUnit, ntValue);
+            await updateNTAccount(row.Company, row.Class, row.BusinessUnit, ntValue, row.Version);
             setEditRowIndex(null);
             if (onUpdateComplete) {
                 onUpdateComplete();
             }
         } catch (error) {
+            if (error.response && error.response.status === 409) {
+                alert(error.response.data.message);
+                setEditRowIndex(null);
+                if (onUpdateComplete) {
+                    onUpdateComplete();
+                }
+                return;
+            }
             console.error('Failed to update NT_Account:', error);
         }
     }
@@ -98,13 +87,12 @@ function SearchTable({ data, onUpdateComplete, addingMode,hasSearched }) {
                             <td>{row.Role}</td>
                             <td style={{ minWidth: '200px' }}>
                                 {editRowIndex === idx ? (
-                                    <DropDownSelector
+                                    <NtAccountPicker
                                         label=""
+                                        company={row.Company}
                                         value={ntValue}
-                                        options={ntDropdownOptions}
                                         onChange={(e) => setNtValue(e.target.value)}
-                                        placeholder="Select NT Account"
-                                        isSearchable={true}
+                                        placeholder="Type a name..."
                                     />
                                 ) : (
                                     row.NT_Account
@@ -1,6 +1,7 @@
-import React, { useEffect, useState } from 'react';
+import React, { useEffect, useRef, useState } from 'react';
 import {
     fetchCompanies,
+    fetchBootstrap,
     fetchClasses,
     fetchAllClasses,
     fetchBusinessUnit,
@@ -9,10 +10,11 @@ import {
     searchAll,
     searchByCompany,
     addDirector,
-    getNTAccountsByCompany
+    subscribeChanges
 } from '../services/api';
 import DropDownSelector from '../components/DropdownSelector';
 import SearchTable from '../components/SearchTable';
+import NtAccountPicker from '../components/NtAccountPicker';
 import './styles/Home.css';
 import {motion, AnimatePresence} from 'framer-motion';
 
@@ -30,9 +32,22 @@ function Home() {
     const [addFormCompany, setAddFormCompany] = useState('');
     const [addFormClasses, setAddFormClasses] = useState([]);
     const [addFormSelectedClass, setAddFormSelectedClass] = useState('');
-    const [ntAccounts, setNtAccounts] = useState([]);
     const [selectedNTAccount, setSelectedNTAccount] = useState('');
 
+    // filters of the rows on screen, to tell which pushed rows belong there
+    const shownSearch = useRef(null);
+    // add form data of the last company loaded through /bootstrap: {company, allClasses, ntAccounts}
+    const bootstrapped = useRef(null);
+    // while the change feed is connected, edits arrive through it and nothing needs re-fetching
+    const feedLive = useRef(false);
+    const feedHandlers = useRef(null);
+
+    useEffect(() => subscribeChanges({
+        onChange: change => feedHandlers.current.applyChange(change),
+        onResync: () => feedHandlers.current.reloadAll(),
+        onLive: live => { feedLive.current = live; },
+    }), []);
+
     useEffect(() => {
         async function loadCompanies() {
             const data = await fetchCompanies();
@@ -42,22 +57,36 @@ function Home() {
         loadCompanies();
     }, []);
 
+    // one /bootstrap call loads the chosen company's classes and directors, and the add form's lists
     useEffect(() => {
-        async function loadClasses() {
+        async function loadCompany() {
             if (selectedCompany) {
-                const data = await fetchClasses(selectedCompany);
-                setClasses(data.map(item => item.Class));
+                const data = await fetchBootstrap(selectedCompany);
+                setCompanies(data.companies.map(item => item.Company));
+                setClasses(data.classes.map(item => item.Class));
+                bootstrapped.current = {
+                    company: selectedCompany,
+                    allClasses: data.allClasses,
+                    ntAccounts: data.ntAccounts,
+                };
+                if (!showAddSection) {
+                    shownSearch.current = {company: selectedCompany};
+                    setHasSearched(true);
+                    setResults(data.directors);
+                }
             } else {
                 setClasses([]);
             }
         }
-        loadClasses();
+        loadCompany();
     }, [selectedCompany]);
 
     // Load classes for the add form when company is selected (get ALL classes from BUxClass)
     useEffect(() => {
         async function loadAddFormClasses() {
-            if (addFormCompany) {
+            if (addFormCompany && bootstrapped.current?.company === addFormCompany) {
+                setAddFormClasses(bootstrapped.current.allClasses.map(item => item.Class));
+            } else if (addFormCompany) {
                 const data = await fetchAllClasses(addFormCompany);
                 setAddFormClasses(data.map(item => item.Class));
             } else {
@@ -67,18 +96,6 @@ function Home() {
         loadAddFormClasses();
     }, [addFormCompany]);
 
-    useEffect(() => {
-        async function loadNTAccounts() {
-            if (addFormCompany) {
-                const accounts = await getNTAccountsByCompany(addFormCompany);
-                setNtAccounts(accounts.map( a => ({ value: a.value, label: a.label })));
-            } else {
-                setNtAccounts([]);
-            }
-        }
-        loadNTAccounts();
-    }, [addFormCompany]);
-
     async function handleSearch() {
         try {
             setHasSearched(true);
@@ -87,12 +104,15 @@ function Home() {
                 const buData = await fetchBusinessUnit(selectedCompany, selectedClass);
                 if (!buData) return setResults([]);
                 const data = await searchWithParams(selectedCompany, selectedClass, buData);
+                shownSearch.current = {company: selectedCompany, clazz: selectedClass, businessUnit: buData};
                 setResults(data);
             } else if (selectedCompany) {
                 const data = await searchByCompany(selectedCompany);
+                shownSearch.current = {company: selectedCompany};
                 setResults(data);
             } else {
                 const data = await searchAll();
+                shownSearch.current = {};
                 setResults(data);
             }
         } catch (e) {
@@ -100,6 +120,64 @@ function Home() {
         }
     }
 
+    function refreshUnlessLive() {
+        if (!feedLive.current) {
+            handleSearch();
+        }
+    }
+
+    const same = (a, b) => (a || '').toUpperCase() === (b || '').toUpperCase();
+
+    // a change carries all director rows of one class as they are now; they replace the ones shown
+    function applyChange(change) {
+        const search = shownSearch.current;
+        if (search) {
+            const ofClass = row => same(row.Company, change.company) && same(row.Class, change.clazz);
+            const shown = row => (!search.company || same(row.Company, search.company))
+                && (!search.clazz || same(row.Class, search.clazz))
+                && (!search.businessUnit || same(row.BusinessUnit, search.businessUnit));
+            setResults(rows => {
+                const at = rows.findIndex(ofClass);
+                const rest = rows.filter(row => !ofClass(row));
+                rest.splice(at < 0 ? rest.length : at, 0, ...change.directors.filter(shown));
+                return rest;
+            });
+        }
+        if (same(change.company, selectedCompany)) {
+            setClasses(list => {
+                const rest = list.filter(c => !same(c, change.clazz));
+                return change.directors.length ? [...rest, change.clazz] : rest;
+            });
+        }
+        if (change.type === 'classDeleted' && same(change.company, addFormCompany)) {
+            setAddFormClasses(list => list.filter(c => !same(c, change.clazz)));
+        }
+        const cached = bootstrapped.current;
+        if (change.type === 'classDeleted' && cached && same(change.company, cached.company)) {
+            cached.allClasses = cached.allClasses.filter(item => !same(item.Class, change.clazz));
+        }
+    }
+
+    // edited outside this application: no delta, so load everything on screen again
+    async function reloadAll() {
+        bootstrapped.current = null;
+        const data = await fetchCompanies();
+        setCompanies(data.map(item => item.Company));
+        if (selectedCompany) {
+            const classData = await fetchClasses(selectedCompany);
+            setClasses(classData.map(item => item.Class));
+        }
+        if (addFormCompany) {
+            const classData = await fetchAllClasses(addFormCompany);
+            setAddFormClasses(classData.map(item => item.Class));
+        }
+        if (shownSearch.current) {
+            await handleSearch();
+        }
+    }
+
+    feedHandlers.current = {applyChange, reloadAll};
+
 
     async function handleAddDirector() {
         if (!addFormCompany || !addFormSelectedClass || !selectedNTAccount) {
@@ -130,13 +208,13 @@ function Home() {
             setSelectedNTAccount('');
             setShowAddSection(false);
 
-            // ✅ Refresh the Class Code dropdown in the Search section
-            if (addFormCompany) {
+            // ✅ Refresh the Class Code dropdown in the Search section (the change feed does both when live)
+            if (addFormCompany && !feedLive.current) {
                 const updatedClasses = await fetchClasses(addFormCompany);
                 setClasses(updatedClasses.map(item => item.Class));
             }
 
-            if (hasSearched) {
+            if (hasSearched && !feedLive.current) {
                 await handleSearch();
             }
 
@@ -181,6 +259,7 @@ function Home() {
                         if (newState) {
                             setResults([]); 
                             setHasSearched(false); 
+                            shownSearch.current = null;
                             // Reset add form when opening
                             setAddFormCompany('');
                             setAddFormSelectedClass('');
@@ -225,13 +304,14 @@ function Home() {
                             </div>
 
                             <div className="form-group me-4">
-                                <DropDownSelector
+                                <NtAccountPicker
                                     label="New Director Name"
+                                    company={addFormCompany}
+                                    initialOptions={bootstrapped.current?.company === addFormCompany
+                                        ? bootstrapped.current.ntAccounts : undefined}
                                     value={selectedNTAccount}
-                                    options={ntAccounts}
                                     onChange={(e) => setSelectedNTAccount(e.target.value)}
-                                    placeholder="Select Name..."
-                                    isSearchable={true}
+                                    placeholder="Type a name..."
                                 />
                             </div>
 
@@ -250,7 +330,7 @@ function Home() {
             </AnimatePresence>
             <SearchTable 
                         data={results} 
-                        onUpdateComplete={handleSearch}
+                        onUpdateComplete={refreshUnlessLive}
                         addingMode={showAddSection}
                         hasSearched={hasSearched}
             />
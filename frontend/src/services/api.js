@@ -8,6 +8,13 @@ export async function fetchCompanies() {
 }
 
 
+export async function fetchBootstrap(company) {
+    const res = await axios.get(`${API_BASE_URL}/bootstrap`, {
+        params: {company},
+    });
+    return res.data;
+}
+
 export async function fetchClasses(company) {
     const res = await axios.get(`${API_BASE_URL}/classes`, {
         params: {company},
@@ -62,19 +69,49 @@ export async function searchByCompany(company) {
     return res.data;
 }
 
-export async function updateNTAccount(company, clazz, businessUnit, ntAccount) {
+// filters: {company, businessUnit, ntAccount, classPrefix, sort, direction, pageSize};
+// pass the previous page's nextCursor as cursor to get the next page
+export async function searchDirectors(filters, cursor) {
+    const res = await axios.get(`${API_BASE_URL}/search`, {
+        params: {...filters, cursor},
+    });
+    return res.data;
+}
+
+// one key per logical write, sent again unchanged on any retry so the backend applies it once
+function idempotencyKey() {
+    return {'Idempotency-Key': crypto.randomUUID()};
+}
+
+// version is the row's Version as read; a 409 means someone else changed it since
+export async function updateNTAccount(company, clazz, businessUnit, ntAccount, version) {
     const res = await axios.put(`${API_BASE_URL}/update-nt`, {
         company,
         clazz,
         businessUnit,
-        ntAccount
-    });
+        ntAccount,
+        version
+    }, {headers: idempotencyKey()});
     return res.data;
 }
 
-export async function getNTAccountsByCompany(company) {
-    const res = await axios.get(`${API_BASE_URL}/ntaccounts`, {
-        params: {company}
+// server-sent director changes (see ChangeFeedService); EventSource reconnects by itself
+// and resumes from the last event id it saw. Returns a function that closes the feed.
+export function subscribeChanges({onChange, onResync, onLive}) {
+    const source = new EventSource(`${API_BASE_URL}/changes`);
+    for (const type of ['assigned', 'updated', 'removed', 'classDeleted']) {
+        source.addEventListener(type, e => onChange(JSON.parse(e.data)));
+    }
+    source.addEventListener('resync', () => onResync());
+    source.onopen = () => onLive(true);
+    source.onerror = () => onLive(false);
+    return () => source.close();
+}
+
+// top matches of q among the company's region; the picker calls this per (debounced) keystroke
+export async function suggestNTAccounts(company, q, limit = 20) {
+    const res = await axios.get(`${API_BASE_URL}/ntaccounts/suggest`, {
+        params: {company, q, limit}
     });
     return res.data;
 }
@@ -83,7 +120,7 @@ export async function addDirector(company, clazz, businessUnit, ntAccount) {
     try {
         const res = await axios.post(`${API_BASE_URL}/add-director`, {
         company, clazz, businessUnit, ntAccount
-        });
+        }, {headers: idempotencyKey()});
         return { success: true, data: res.data };
     } catch (err) {
         if (err.response && err.response.status === 409) {